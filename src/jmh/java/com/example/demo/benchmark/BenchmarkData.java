@@ -0,0 +1,124 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds the database of a benchmark with generated surveys, questions and
+ * answers.
+ * 
+ * Every survey has the same number of questions. User {@code u} answers every
+ * question of survey {@code s} when {@code (s + u)} is even, so each user
+ * answered half of the surveys and each survey was answered by half of the
+ * users. The IDs are assigned here, starting at 1, in the order of creation.
+ */
+final class BenchmarkData {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * UUID of the user with the given index.
+	 *
+	 * @param user The index of the user, starting at 0.
+	 * @return The UUID of the user.
+	 */
+	static UUID userUuid(int user) {
+		return new UUID(0L, user + 1L);
+	}
+
+	/**
+	 * ID of a question of a survey.
+	 *
+	 * @param survey             The index of the survey, starting at 0.
+	 * @param question           The index of the question in the survey, starting
+	 *                           at 0.
+	 * @param questionsPerSurvey The number of questions of a survey.
+	 * @return The ID of the question.
+	 */
+	static long questionId(int survey, int question, int questionsPerSurvey) {
+		return (long) survey * questionsPerSurvey + question + 1;
+	}
+
+	/**
+	 * Whether the user answered the survey.
+	 *
+	 * @param survey The index of the survey, starting at 0.
+	 * @param user   The index of the user, starting at 0.
+	 * @return true if the user answered every question of the survey.
+	 */
+	static boolean answered(int survey, int user) {
+		return (survey + user) % 2 == 0;
+	}
+
+	/**
+	 * Inserts the surveys, questions, answers and completions, and moves the ID
+	 * generators after the inserted rows.
+	 *
+	 * @param jdbcTemplate       JdbcTemplate on the database of the benchmark.
+	 * @param surveys            The number of surveys.
+	 * @param questionsPerSurvey The number of questions of a survey.
+	 * @param users              The number of users.
+	 */
+	static void seed(JdbcTemplate jdbcTemplate, int surveys, int questionsPerSurvey, int users) {
+		List<Object[]> surveyRows = new ArrayList<Object[]>();
+		List<Object[]> questionRows = new ArrayList<Object[]>();
+		for (int s = 0; s < surveys; s++) {
+			surveyRows.add(new Object[] { s + 1L, UUID.randomUUID(), "Survey " + (s + 1),
+					"Description of survey " + (s + 1) });
+			for (int q = 0; q < questionsPerSurvey; q++) {
+				questionRows.add(new Object[] { questionId(s, q, questionsPerSurvey),
+						"Question " + (s + 1) + "." + (q + 1), s + 1L });
+			}
+		}
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO SURVEY(survey_id, survey_uuid, survey_title, survey_desc) VALUES (?, ?, ?, ?)",
+				surveyRows);
+		jdbcTemplate.batchUpdate("INSERT INTO QUESTION(question_id, question_text, survey_id) VALUES (?, ?, ?)",
+				questionRows);
+
+		long answerId = 0;
+		List<Object[]> answerRows = new ArrayList<Object[]>(BATCH_SIZE);
+		List<Object[]> completionRows = new ArrayList<Object[]>(BATCH_SIZE);
+		for (int u = 0; u < users; u++) {
+			UUID userUuid = userUuid(u);
+			for (int s = 0; s < surveys; s++) {
+				if (!answered(s, u)) {
+					continue;
+				}
+				completionRows.add(new Object[] { s + 1L, userUuid });
+				for (int q = 0; q < questionsPerSurvey; q++) {
+					answerId++;
+					answerRows.add(new Object[] { answerId, (int) (answerId % 5) + 1,
+							questionId(s, q, questionsPerSurvey), userUuid });
+				}
+				if (answerRows.size() >= BATCH_SIZE) {
+					insertAnswers(jdbcTemplate, answerRows, completionRows);
+				}
+			}
+		}
+		insertAnswers(jdbcTemplate, answerRows, completionRows);
+
+		jdbcTemplate.execute("ALTER TABLE SURVEY ALTER COLUMN survey_id RESTART WITH " + (surveys + 1));
+		jdbcTemplate.execute("ALTER SEQUENCE QUESTION_SEQ RESTART WITH "
+				+ ((long) surveys * questionsPerSurvey + 1));
+		jdbcTemplate.execute("ALTER SEQUENCE ANSWER_SEQ RESTART WITH " + (answerId + 1));
+	}
+
+	private static void insertAnswers(JdbcTemplate jdbcTemplate, List<Object[]> answerRows,
+			List<Object[]> completionRows) {
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO ANSWER(answer_id, answer_rating, question_id, user_uuid) VALUES (?, ?, ?, ?)",
+				answerRows);
+		jdbcTemplate.batchUpdate("INSERT INTO SURVEY_COMPLETION(survey_id, user_uuid) VALUES (?, ?)",
+				completionRows);
+		answerRows.clear();
+		completionRows.clear();
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the web server with platform or virtual request threads. Each
+ * JMH thread is a client sending its requests one after the other, so there are
+ * more concurrent requests than threads in the Tomcat pool (200). Both modes use
+ * the same fixed connection pool.
+ *
+ * The throughput mode gives the requests per second, the sample mode the
+ * percentiles of the latency (p0.99). The virtual mode needs Java 21, run it
+ * with {@code ./gradlew jmh -PvirtualThreads -Pjmh.includes=RequestThreadsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(256)
+public class RequestThreadsBenchmark {
+
+	private static final int SURVEYS = 10;
+	private static final int QUESTIONS_PER_SURVEY = 10;
+	private static final int USERS = 1000;
+
+	@Param({ "platform", "virtual" })
+	public String requestThreads;
+
+	@Param({ "10" })
+	public int connectionPoolSize;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private URI submitUri;
+	private String baseUri;
+	private String submissions;
+
+	@Setup(Level.Trial)
+	public void startServer() {
+		boolean virtual = "virtual".equals(requestThreads);
+		if (virtual && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads need Java 21, run the benchmark with -PvirtualThreads");
+		}
+
+		context = SeededApplication.start(WebApplicationType.SERVLET, SURVEYS, QUESTIONS_PER_SURVEY, USERS,
+				"spring.threads.virtual.enabled=" + virtual,
+				"spring.datasource.hikari.maximum-pool-size=" + connectionPoolSize,
+				"spring.datasource.hikari.minimum-idle=" + connectionPoolSize);
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		baseUri = "http://localhost:" + port + "/api/surveys";
+		submitUri = URI.create(baseUri + "/1/submit");
+
+		StringBuilder json = new StringBuilder("[");
+		for (int q = 0; q < QUESTIONS_PER_SURVEY; q++) {
+			json.append(q == 0 ? "" : ",")
+					.append("{\"questionId\":").append(BenchmarkData.questionId(0, q, QUESTIONS_PER_SURVEY))
+					.append(",\"rating\":").append(q % 5 + 1).append("}");
+		}
+		submissions = json.append("]").toString();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServer() {
+		context.close();
+	}
+
+	@Benchmark
+	public int submit() throws IOException, InterruptedException {
+		String body = "{\"userUuid\":\"" + UUID.randomUUID() + "\",\"submissions\":" + submissions + "}";
+		HttpRequest request = HttpRequest.newBuilder(submitUri)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return send(request);
+	}
+
+	@Benchmark
+	public int getSurveysOfUser() throws IOException, InterruptedException {
+		UUID userUuid = BenchmarkData.userUuid(ThreadLocalRandom.current().nextInt(USERS));
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/user/" + userUuid)).GET().build();
+		return send(request);
+	}
+
+	private int send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + request.uri());
+		}
+		return response.statusCode();
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.example.demo.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.service.RatingCounters;
+
+/**
+ * Base state of the service benchmarks: starts the application without the web
+ * server on a fresh in-memory H2 database, seeded by {@link BenchmarkData} with
+ * the sizes given by the parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public abstract class SeededApplication {
+
+	@Param({ "10" })
+	public int surveys;
+
+	@Param({ "10" })
+	public int questionsPerSurvey;
+
+	@Param({ "100", "1000" })
+	public int users;
+
+	protected ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = start(surveys, questionsPerSurvey, users);
+	}
+
+	/**
+	 * Starts the application without the web server on a fresh database seeded
+	 * with the given sizes.
+	 *
+	 * @param surveys            The number of surveys.
+	 * @param questionsPerSurvey The number of questions of a survey.
+	 * @param users              The number of users.
+	 * @return The context of the application.
+	 */
+	static ConfigurableApplicationContext start(int surveys, int questionsPerSurvey, int users) {
+		return start(WebApplicationType.NONE, surveys, questionsPerSurvey, users);
+	}
+
+	/**
+	 * Starts the application on a fresh database seeded with the given sizes.
+	 *
+	 * @param webApplicationType NONE to start the application without the web
+	 *                           server, SERVLET to start it on a random port.
+	 * @param surveys            The number of surveys.
+	 * @param questionsPerSurvey The number of questions of a survey.
+	 * @param users              The number of users.
+	 * @param properties         Additional properties of the application, as
+	 *                           "key=value".
+	 * @return The context of the application.
+	 */
+	static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int surveys,
+			int questionsPerSurvey, int users, String... properties) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(webApplicationType)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+						"spring.datasource.username=sa",
+						"spring.datasource.password=",
+						"spring.sql.init.mode=never",
+						"server.port=0")
+				.properties(properties)
+				.run();
+
+		BenchmarkData.seed(context.getBean(JdbcTemplate.class), surveys, questionsPerSurvey, users);
+		// The counters were built from the empty database when the application started
+		context.getBean(RatingCounters.class).rebuild();
+		return context;
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	protected <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.example.demo.model.Submission;
+import com.example.demo.service.ResponseService;
+
+/**
+ * Benchmark of the submission of a survey by a new user. Every invocation adds
+ * the answers of a new user to the database, the size of the tables grows with
+ * the number of invocations.
+ */
+public class SubmissionBenchmark extends SeededApplication {
+
+	private static final Long SURVEY_ID = 1L;
+
+	private ResponseService responseService;
+	private List<Submission> submissions;
+
+	@Setup(Level.Trial)
+	public void prepareSubmission() {
+		responseService = bean(ResponseService.class);
+
+		submissions = new ArrayList<Submission>(questionsPerSurvey);
+		for (int q = 0; q < questionsPerSurvey; q++) {
+			submissions.add(new Submission(BenchmarkData.questionId(0, q, questionsPerSurvey), q % 5 + 1));
+		}
+	}
+
+	@Benchmark
+	public void processSubmission() throws Exception {
+		responseService.processSubmission(SURVEY_ID, UUID.randomUUID(), submissions);
+	}
+
+}
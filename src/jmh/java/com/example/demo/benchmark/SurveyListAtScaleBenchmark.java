@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.model.Survey;
+import com.example.demo.service.ResponseService;
+import com.example.demo.service.SurveyService;
+
+/**
+ * The benchmarks of {@link SurveyListBenchmark} on 1,000 surveys of 10
+ * questions answered by 200 users: each user answered half of the surveys, so
+ * the database has 1,000,000 answers. The sizes are fixed, a parameter of
+ * {@link SeededApplication} would multiply the runs of every other benchmark.
+ *
+ * The seeding takes a few seconds and the answers take a few hundred megabytes
+ * of the heap of the fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SurveyListAtScaleBenchmark {
+
+	private static final int SURVEYS = 1000;
+	private static final int QUESTIONS_PER_SURVEY = 10;
+	private static final int USERS = 200;
+
+	private ConfigurableApplicationContext context;
+	private ResponseService responseService;
+	private SurveyService surveyService;
+	private UUID userUuid;
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = SeededApplication.start(SURVEYS, QUESTIONS_PER_SURVEY, USERS);
+		responseService = context.getBean(ResponseService.class);
+		surveyService = context.getBean(SurveyService.class);
+		userUuid = BenchmarkData.userUuid(USERS / 2);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public HashMap<String, Iterable<Survey>> getSurveysSortedForUserUuid() {
+		return responseService.getSurveysSortedForUserUuid(userUuid);
+	}
+
+	@Benchmark
+	public HashMap<String, Iterable<Survey>> getSurveysSortedForUserUuidOneQueryPerSurvey() {
+		return SurveyListBenchmark.sortOneQueryPerSurvey(responseService, surveyService, userUuid);
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.example.demo.model.Survey;
+import com.example.demo.service.ResponseService;
+import com.example.demo.service.SurveyService;
+
+/**
+ * Benchmarks of the lookups of the surveys answered by a user.
+ */
+public class SurveyListBenchmark extends SeededApplication {
+
+	private ResponseService responseService;
+	private SurveyService surveyService;
+	private UUID userUuid;
+
+	@Setup(Level.Trial)
+	public void loadUser() {
+		responseService = bean(ResponseService.class);
+		surveyService = bean(SurveyService.class);
+		userUuid = BenchmarkData.userUuid(users / 2);
+	}
+
+	@Benchmark
+	public HashMap<String, Iterable<Survey>> getSurveysSortedForUserUuid() {
+		return responseService.getSurveysSortedForUserUuid(userUuid);
+	}
+
+	@Benchmark
+	public HashMap<String, Iterable<Survey>> getSurveysSortedForUserUuidOneQueryPerSurvey() {
+		return sortOneQueryPerSurvey(responseService, surveyService, userUuid);
+	}
+
+	@Benchmark
+	public boolean hasAnswersFromUserUuidToSurvey() {
+		return responseService.hasAnswersFromUserUuidToSurvey(userUuid, (long) surveys);
+	}
+
+	/**
+	 * Baseline of getSurveysSortedForUserUuid: the sorting as it was before the
+	 * completions, reading the answers of the user to each survey.
+	 *
+	 * @param responseService The response service of the application.
+	 * @param surveyService   The survey service of the application.
+	 * @param userUuid        The UUID of the user.
+	 * @return The surveys answered and not answered by the user.
+	 */
+	static HashMap<String, Iterable<Survey>> sortOneQueryPerSurvey(ResponseService responseService,
+			SurveyService surveyService, UUID userUuid) {
+		ArrayList<Survey> surveysAnswered = new ArrayList<Survey>();
+		ArrayList<Survey> surveysNotAnswered = new ArrayList<Survey>();
+		for (Survey survey : surveyService.getAllSurveys()) {
+			if (responseService.getAllAnswersOfSurveyFromUserUuid(survey.getId(), userUuid).size() > 0) {
+				surveysAnswered.add(survey);
+			} else {
+				surveysNotAnswered.add(survey);
+			}
+		}
+
+		HashMap<String, Iterable<Survey>> sortedSurveys = new HashMap<String, Iterable<Survey>>();
+		sortedSurveys.put("answered", surveysAnswered);
+		sortedSurveys.put("notAnswered", surveysNotAnswered);
+		return sortedSurveys;
+	}
+
+}
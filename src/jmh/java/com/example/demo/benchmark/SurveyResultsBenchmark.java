@@ -0,0 +1,59 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.example.demo.model.Answer;
+import com.example.demo.model.Question;
+import com.example.demo.model.SurveyResultDTO;
+import com.example.demo.model.UserResultDTO;
+import com.example.demo.service.ResponseService;
+import com.example.demo.service.SurveyService;
+
+/**
+ * Benchmarks of the results of a survey. The survey read was answered by half
+ * of the users.
+ */
+public class SurveyResultsBenchmark extends SeededApplication {
+
+	private static final Long SURVEY_ID = 1L;
+
+	private ResponseService responseService;
+	private SurveyService surveyService;
+
+	private List<Answer> answers;
+	private List<Question> questions;
+
+	@Setup(Level.Trial)
+	public void loadSurvey() {
+		responseService = bean(ResponseService.class);
+		surveyService = bean(SurveyService.class);
+
+		questions = new ArrayList<Question>();
+		responseService.getQuestionsFromSurveyId(SURVEY_ID).forEach(questions::add);
+		answers = new ArrayList<Answer>();
+		for (Iterable<Answer> answersOfQuestion : responseService.getAllAnswersForSurvey(SURVEY_ID)) {
+			answersOfQuestion.forEach(answers::add);
+		}
+	}
+
+	@Benchmark
+	public SurveyResultDTO getSurveyResultsFullSummary() {
+		return responseService.getSurveyResultsFullSummary(SURVEY_ID);
+	}
+
+	@Benchmark
+	public List<UserResultDTO> getSurveyResultsByUser() {
+		return responseService.getSurveyResultsByUser(SURVEY_ID);
+	}
+
+	@Benchmark
+	public SurveyResultDTO transformSurveyResultsToDTO() {
+		return surveyService.transformSurveyResultsToDTO(answers, questions);
+	}
+
+}
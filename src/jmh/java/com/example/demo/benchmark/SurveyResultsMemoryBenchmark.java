@@ -0,0 +1,92 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.model.Answer;
+import com.example.demo.model.UserResultDTO;
+import com.example.demo.service.AnswerService;
+import com.example.demo.service.ExportService;
+import com.example.demo.service.ResponseService;
+
+/**
+ * Memory used to read the results of a survey with one million answers (100
+ * 000 users answering its 10 questions). Run it with the GC profiler, the
+ * bytes allocated by each read are reported as gc.alloc.rate.norm:
+ * 
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=SurveyResultsMemoryBenchmark -Pjmh.profilers=gc
+ * </pre>
+ * 
+ * The entity benchmark loads the answers as entities, as the results by user
+ * did before they were read as rows, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SurveyResultsMemoryBenchmark {
+
+	private static final Long SURVEY_ID = 1L;
+
+	private ConfigurableApplicationContext context;
+	private ResponseService responseService;
+	private AnswerService answerService;
+	private ExportService exportService;
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		// User u answers survey 1 when u is even
+		context = SeededApplication.start(2, 10, 200_000);
+		responseService = context.getBean(ResponseService.class);
+		answerService = context.getBean(AnswerService.class);
+		exportService = context.getBean(ExportService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Answer> answersAsEntities() {
+		List<Answer> answers = new ArrayList<Answer>();
+		for (Iterable<Answer> answersOfQuestion : responseService.getAllAnswersForSurvey(SURVEY_ID)) {
+			answersOfQuestion.forEach(answers::add);
+		}
+		return answers;
+	}
+
+	@Benchmark
+	public List<UserResultDTO> resultsByUser() {
+		return responseService.getSurveyResultsByUser(SURVEY_ID);
+	}
+
+	@Benchmark
+	public void streamedResultsByUser() throws IOException {
+		answerService.writeSurveyResultsByUser(SURVEY_ID, OutputStream.nullOutputStream());
+	}
+
+	@Benchmark
+	public void columnarExport() throws IOException {
+		exportService.writeColumnar(SURVEY_ID, OutputStream.nullOutputStream());
+	}
+
+}
@@ -3,15 +3,23 @@ package com.example.demo.controller;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.demo.exception.DuplicateSubmissionException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.SurveyClosedException;
 import com.example.demo.model.Answer;
+import com.example.demo.model.AnswerSummaryDTO;
+import com.example.demo.model.PendingSubmission;
 import com.example.demo.model.Question;
-import com.example.demo.model.SurveyResultDTO;
-import com.example.demo.model.UserResultDTO;
+import com.example.demo.model.Survey;
+import com.example.demo.model.SurveyResultsSnapshot;
+import com.example.demo.model.SubmissionStatusDTO;
+import com.example.demo.model.SurveyStatsDTO;
 import com.example.demo.model.UserSubmission;
 import com.example.demo.service.AnswerService;
+import com.example.demo.service.ExportService;
 import com.example.demo.service.QuestionService;
 import com.example.demo.service.ResponseService;
+import com.example.demo.service.SubmissionQueue;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 
@@ -19,6 +27,9 @@ import java.net.URI;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +38,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller class for handling answer-related endpoints.
@@ -38,6 +52,8 @@ public class AnswerController {
 	private final AnswerService answerService;
 	private final QuestionService questionService;
 	private final ResponseService responseService;
+	private final ExportService exportService;
+	private final SubmissionQueue submissionQueue;
 
 	/**
 	 * Constructor for AnswerController.
@@ -46,38 +62,93 @@ public class AnswerController {
 	 * @param questionService Service for managing questions.
 	 * @param surveyService   Service for managing surveys.
 	 * @param responseService Service for managing responses.
+	 * @param exportService   Service exporting the answers of surveys.
+	 * @param submissionQueue Queue of the submissions written asynchronously.
 	 */
 	public AnswerController(AnswerService answerService, QuestionService questionService,
-			ResponseService responseService) {
+			ResponseService responseService, ExportService exportService, SubmissionQueue submissionQueue) {
 		this.answerService = answerService;
 		this.questionService = questionService;
 		this.responseService = responseService;
+		this.exportService = exportService;
+		this.submissionQueue = submissionQueue;
 	}
 
 	/**
-	 * Retrieves all answers.
+	 * Retrieves a page of answers, ordered by ID. If the page is full, the Link
+	 * header of the response points to the next page. The answers refer to their
+	 * question by its ID.
 	 * 
-	 * @return ResponseEntity containing all answers if found, otherwise returns no
-	 *         content.
+	 * @param after The ID of the last answer of the previous page (optional).
+	 * @param limit The maximum number of answers of the page (optional).
+	 * @return ResponseEntity containing the answers of the page if found,
+	 *         otherwise returns no content.
 	 */
 	@GetMapping("/answer")
-	public ResponseEntity<Iterable<Answer>> getAllAnswers() {
-		Iterable<Answer> answers = answerService.getAllAnswers();
+	public ResponseEntity<Iterable<AnswerSummaryDTO>> getAllAnswers(
+			@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		int pageLimit = Pagination.limit(limit);
+		List<AnswerSummaryDTO> answers = answerService.getAnswerSummariesAfter(Pagination.after(after), pageLimit);
 		if (answers == null) {
 			return ResponseEntity.noContent().build();
 		}
-		return ResponseEntity.ok(answers);
+		return ResponseEntity.ok()
+				.headers(Pagination.headers(answers, pageLimit, AnswerSummaryDTO::getId))
+				.body(answers);
+	}
+
+	/**
+	 * Streams all the answers as newline-delimited JSON, ordered by ID. The
+	 * answers are written as they are read from the database so the memory used
+	 * does not depend on the number of answers.
+	 * 
+	 * @param after The ID after which the answers are streamed (optional).
+	 * @return ResponseEntity streaming the answers.
+	 */
+	@GetMapping(path = "/answer", params = "format=ndjson")
+	public ResponseEntity<StreamingResponseBody> streamAllAnswers(
+			@RequestParam(name = "after", required = false) Long after) {
+		long streamAfter = Pagination.after(after);
+		StreamingResponseBody body = outputStream -> answerService.writeAnswersAsNdjson(streamAfter, outputStream);
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType("application/x-ndjson"))
+				.body(body);
+	}
+
+	/**
+	 * Retrieves a page of the answers of a user, ordered by ID. If the page is
+	 * full, the Link header of the response points to the next page. The answers
+	 * refer to their question by its ID.
+	 * 
+	 * @param userUuid The UUID of the user.
+	 * @param after    The ID of the last answer of the previous page (optional).
+	 * @param limit    The maximum number of answers of the page (optional).
+	 * @return ResponseEntity containing the answers of the page.
+	 */
+	@GetMapping("/users/{userUuid}/answers")
+	public ResponseEntity<Iterable<AnswerSummaryDTO>> getAllAnswersOfUser(@PathVariable("userUuid") UUID userUuid,
+			@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		int pageLimit = Pagination.limit(limit);
+		List<AnswerSummaryDTO> answers = answerService.findAnswerSummariesByUserUuidAfter(userUuid,
+				Pagination.after(after), pageLimit);
+		return ResponseEntity.ok()
+				.headers(Pagination.headers(answers, pageLimit, AnswerSummaryDTO::getId))
+				.body(answers);
 	}
 
 	/**
-	 * Retrieves all answers for a specific question.
+	 * Retrieves all answers for a specific question. The answers refer to the
+	 * question by its ID.
 	 * 
 	 * @param questionId The ID of the question.
 	 * @return ResponseEntity containing answers for the question if found,
 	 *         otherwise returns no content.
 	 */
 	@GetMapping("/question/{questionId}/answer")
-	public ResponseEntity<Iterable<Answer>> getAllAnswersForQuestion(@PathVariable("questionId") Long questionId) {
+	public ResponseEntity<Iterable<AnswerSummaryDTO>> getAllAnswersForQuestion(
+			@PathVariable("questionId") Long questionId) {
 
 		Question question = questionService.findQuestion(questionId);
 
@@ -85,7 +156,7 @@ public class AnswerController {
 			return ResponseEntity.noContent().build();
 		}
 
-		Iterable<Answer> answers = answerService.findByQuestionId(questionId);
+		Iterable<AnswerSummaryDTO> answers = answerService.findAnswerSummariesByQuestionId(questionId);
 		if (answers == null) {
 			return ResponseEntity.noContent().build();
 		}
@@ -93,7 +164,7 @@ public class AnswerController {
 	}
 
 	/**
-	 * Retrieves an answer by its ID.
+	 * Retrieves an answer by its ID, with its question.
 	 * 
 	 * @param answerId The ID of the answer.
 	 * @return ResponseEntity containing the answer if found, otherwise returns no
@@ -115,7 +186,8 @@ public class AnswerController {
 	 * @param questionId The ID of the question.
 	 * @param newAnswer  The new answer to be created.
 	 * @param ucb        UriComponentsBuilder for building URI.
-	 * @return ResponseEntity with the URI of the newly created answer.
+	 * @return ResponseEntity with the URI of the newly created answer, or bad
+	 *         request if the survey of the question is closed.
 	 */
 	@PostMapping("/question/{questionId}/answer")
 	public ResponseEntity<Void> createAnswer(@PathVariable("questionId") Long questionId, @RequestBody Answer newAnswer,
@@ -130,8 +202,12 @@ public class AnswerController {
 		if (question == null) {
 			return ResponseEntity.noContent().build();
 		}
-		newAnswer.setQuestion(question);
-		Answer savedAnswer = answerService.saveAnswer(newAnswer);
+		Answer savedAnswer;
+		try {
+			savedAnswer = responseService.saveAnswerToQuestion(question, newAnswer);
+		} catch (SurveyClosedException e) {
+			return ResponseEntity.badRequest().build();
+		}
 
 		// Build the URI for the newly created question
 		URI locationNewAnswer = ucb.path("api/answer/{id}")
@@ -219,16 +295,24 @@ public class AnswerController {
 	}
 
 	/**
-	 * Retrieves full survey results summary (including all the users).
+	 * Retrieves full survey results summary (including all the users). The
+	 * results of a closed survey are served from their snapshot, compressed with
+	 * gzip if the client accepts it.
 	 * 
-	 * @param surveyId The ID of the survey.
+	 * @param surveyId       The ID of the survey.
+	 * @param acceptEncoding The Accept-Encoding header (optional).
 	 * @return ResponseEntity containing full survey results summary if found,
 	 *         otherwise returns no content.
 	 */
 	@GetMapping("/surveys/{surveyId}/results/full")
-	public ResponseEntity<SurveyResultDTO> getSurveyResultsFullSummary(@PathVariable("surveyId") Long surveyId) {
+	public ResponseEntity<Object> getSurveyResultsFullSummary(@PathVariable("surveyId") Long surveyId,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
 		try {
+			byte[] snapshot = responseService.getSurveyResultsSnapshot(surveyId, SurveyResultsSnapshot.Format.FULL);
+			if (snapshot != null) {
+				return GzipJson.ok(acceptEncoding, snapshot);
+			}
 			return ResponseEntity.ok(responseService.getSurveyResultsFullSummary(surveyId));
 		} catch (IllegalArgumentException e) {
 			return ResponseEntity.noContent().build();
@@ -238,16 +322,109 @@ public class AnswerController {
 	}
 
 	/**
-	 * Retrieves survey results sorted by user.
+	 * Streams the full survey results summary as JSON, writing each question as
+	 * it is read from the database.
+	 * 
+	 * @param surveyId The ID of the survey.
+	 * @return ResponseEntity streaming the full survey results summary if the
+	 *         survey exists, otherwise returns no content.
+	 */
+	@GetMapping(path = "/surveys/{surveyId}/results/full", params = "stream=true")
+	public ResponseEntity<StreamingResponseBody> streamSurveyResultsFullSummary(
+			@PathVariable("surveyId") Long surveyId) {
+
+		try {
+			Survey survey = responseService.getExistingSurvey(surveyId);
+			StreamingResponseBody body = outputStream -> answerService.writeSurveyResultsFullSummary(survey,
+					outputStream);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		}
+	}
+
+	/**
+	 * Exports the answers of a survey for analysis, as CSV or in a columnar
+	 * binary format. The answers are streamed from the database.
+	 * 
+	 * @param surveyId The ID of the survey.
+	 * @param format   The format of the export, csv (default) or columnar.
+	 * @return ResponseEntity streaming the answers if the survey exists, no
+	 *         content if it does not, bad request if the format is unknown.
+	 */
+	@GetMapping("/surveys/{surveyId}/results/export")
+	public ResponseEntity<StreamingResponseBody> exportSurveyResults(@PathVariable("surveyId") Long surveyId,
+			@RequestParam(name = "format", defaultValue = "csv") String format) {
+
+		try {
+			responseService.getExistingSurvey(surveyId);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		}
+
+		StreamingResponseBody body;
+		String extension;
+		MediaType contentType;
+		switch (format) {
+			case "csv":
+				body = outputStream -> exportService.writeCsv(surveyId, outputStream);
+				extension = "csv";
+				contentType = MediaType.parseMediaType("text/csv");
+				break;
+			case "columnar":
+				body = outputStream -> exportService.writeColumnar(surveyId, outputStream);
+				extension = "svrc";
+				contentType = MediaType.APPLICATION_OCTET_STREAM;
+				break;
+			default:
+				return ResponseEntity.badRequest().build();
+		}
+
+		return ResponseEntity.ok()
+				.contentType(contentType)
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"survey-" + surveyId + "-results." + extension + "\"")
+				.body(body);
+	}
+
+	/**
+	 * Retrieves the aggregated ratings (count, mean, min, max and histogram) of
+	 * every question of a survey.
 	 * 
 	 * @param surveyId The ID of the survey.
+	 * @return ResponseEntity containing the survey statistics if found, otherwise
+	 *         returns no content.
+	 */
+	@GetMapping("/surveys/{surveyId}/results/stats")
+	public ResponseEntity<SurveyStatsDTO> getSurveyResultsStats(@PathVariable("surveyId") Long surveyId) {
+
+		try {
+			return ResponseEntity.ok(responseService.getSurveyResultsStats(surveyId));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		} catch (Exception e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	/**
+	 * Retrieves survey results sorted by user. The results of a closed survey are
+	 * served from their snapshot, compressed with gzip if the client accepts it.
+	 * 
+	 * @param surveyId       The ID of the survey.
+	 * @param acceptEncoding The Accept-Encoding header (optional).
 	 * @return ResponseEntity containing survey results by user if found, otherwise
 	 *         returns no content.
 	 */
 	@GetMapping("/surveys/{surveyId}/results")
-	public ResponseEntity<List<UserResultDTO>> getSurveyResultsByUser(@PathVariable("surveyId") Long surveyId) {
+	public ResponseEntity<Object> getSurveyResultsByUser(@PathVariable("surveyId") Long surveyId,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
 		try {
+			byte[] snapshot = responseService.getSurveyResultsSnapshot(surveyId, SurveyResultsSnapshot.Format.BY_USER);
+			if (snapshot != null) {
+				return GzipJson.ok(acceptEncoding, snapshot);
+			}
 			return ResponseEntity.ok(responseService.getSurveyResultsByUser(surveyId));
 		} catch (IllegalArgumentException e) {
 			return ResponseEntity.noContent().build();
@@ -257,16 +434,67 @@ public class AnswerController {
 	}
 
 	/**
-	 * Creates a submission for a survey.
+	 * Streams the survey results sorted by user as JSON, writing each user as it
+	 * is read from the database.
+	 * 
+	 * @param surveyId The ID of the survey.
+	 * @return ResponseEntity streaming the survey results by user if the survey
+	 *         exists, otherwise returns no content.
+	 */
+	@GetMapping(path = "/surveys/{surveyId}/results", params = { "stream=true", "!format" })
+	public ResponseEntity<StreamingResponseBody> streamSurveyResultsByUser(@PathVariable("surveyId") Long surveyId) {
+
+		try {
+			responseService.getExistingSurvey(surveyId);
+			StreamingResponseBody body = outputStream -> answerService.writeSurveyResultsByUser(surveyId,
+					outputStream);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		}
+	}
+
+	/**
+	 * Streams the survey results sorted by user in the compact format: the
+	 * questions are written once, then each user has an array of ratings indexed
+	 * by the position of the questions. See
+	 * {@link AnswerService#writeSurveyResultsCompact}.
+	 * 
+	 * @param surveyId The ID of the survey.
+	 * @return ResponseEntity streaming the compact survey results if the survey
+	 *         exists, otherwise returns no content.
+	 */
+	@GetMapping(path = "/surveys/{surveyId}/results", params = "format=compact")
+	public ResponseEntity<StreamingResponseBody> streamCompactSurveyResults(@PathVariable("surveyId") Long surveyId) {
+
+		try {
+			Iterable<Question> questions = responseService.getQuestionsFromSurveyId(surveyId);
+			StreamingResponseBody body = outputStream -> answerService.writeSurveyResultsCompact(surveyId,
+					questions, outputStream);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		}
+	}
+
+	/**
+	 * Creates a submission for a survey. With async=true, the submission is
+	 * validated, then queued to be written with other submissions: the response
+	 * is sent before it is written, with the URI of its status.
 	 * 
 	 * @param surveyId          The ID of the survey.
 	 * @param newUserSubmission The submission details.
+	 * @param async             True to queue the submission instead of writing
+	 *                          it before responding (optional).
+	 * @param ucb               UriComponentsBuilder for building URI.
 	 * @return ResponseEntity indicating success or failure of submission.
 	 */
 	@CrossOrigin("http://localhost:5173")
 	@PostMapping(value = "/surveys/{surveyId}/submit", consumes = "application/json")
-	public ResponseEntity<String> createSubmission(@PathVariable("surveyId") Long surveyId,
-			@RequestBody UserSubmission newUserSubmission) {
+	public ResponseEntity<Object> createSubmission(@PathVariable("surveyId") Long surveyId,
+			@RequestBody UserSubmission newUserSubmission,
+			@RequestParam(name = "async", defaultValue = "false") boolean async,
+			UriComponentsBuilder ucb) {
 
 		UUID userUuid = newUserSubmission.getUserUuid();
 
@@ -275,14 +503,40 @@ public class AnswerController {
 			return ResponseEntity.badRequest().body("Invalid request: user uuid not present");
 		}
 
-		// We reject if the user already answered the survey
-		if (responseService.hasAnswersFromUserUuidToSurvey(userUuid, surveyId)) {
+		// We reject if the user already answered the survey. The queue is checked
+		// first: a queued submission leaves it only once its completion is written.
+		// These checks only spare the validation, the queue and the unique completion
+		// are the guards.
+		if (submissionQueue.isQueued(surveyId, userUuid)
+				|| responseService.hasAnswersFromUserUuidToSurvey(userUuid, surveyId)) {
 			return ResponseEntity.badRequest().body("Invalid request: survey already answered");
 		}
 
 		try {
-			responseService.processSubmission(userUuid, newUserSubmission.getSubmissions());
-			return ResponseEntity.ok().build();
+			if (!async) {
+				responseService.processSubmission(surveyId, userUuid, newUserSubmission.getSubmissions());
+				return ResponseEntity.ok().build();
+			}
+
+			PendingSubmission pendingSubmission = responseService.validateSubmission(surveyId, userUuid,
+					newUserSubmission.getSubmissions());
+			SubmissionStatusDTO status;
+			try {
+				status = submissionQueue.enqueue(pendingSubmission);
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body("Invalid request: survey already answered");
+			} catch (IllegalStateException e) {
+				return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+			}
+
+			URI locationStatus = ucb.path("api/surveys/{surveyId}/submissions/{submissionId}")
+					.buildAndExpand(surveyId, status.getId()).toUri();
+			return ResponseEntity.accepted().location(locationStatus).body(status);
+		} catch (DuplicateSubmissionException e) {
+			// Another request of the user was written between the check and the insert
+			return ResponseEntity.badRequest().body("Invalid request: survey already answered");
+		} catch (SurveyClosedException e) {
+			return ResponseEntity.badRequest().body("Invalid request: survey closed");
 		} catch (ResourceNotFoundException e) {
 			return ResponseEntity.badRequest().build();
 		} catch (Exception e) {
@@ -290,4 +544,23 @@ public class AnswerController {
 		}
 	}
 
+	/**
+	 * Retrieves the status of a submission queued with async=true.
+	 * 
+	 * @param surveyId     The ID of the survey.
+	 * @param submissionId The ID of the submission.
+	 * @return ResponseEntity containing the status of the submission if found,
+	 *         otherwise returns no content.
+	 */
+	@CrossOrigin("http://localhost:5173")
+	@GetMapping("/surveys/{surveyId}/submissions/{submissionId}")
+	public ResponseEntity<SubmissionStatusDTO> getSubmissionStatus(@PathVariable("surveyId") Long surveyId,
+			@PathVariable("submissionId") UUID submissionId) {
+		SubmissionStatusDTO status = submissionQueue.getStatus(submissionId);
+		if (status == null || !status.getSurveyId().equals(surveyId)) {
+			return ResponseEntity.noContent().build();
+		}
+		return ResponseEntity.ok(status);
+	}
+
 }
@@ -0,0 +1,63 @@
+package com.example.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Helpers for the conditional GET endpoints. A client sends back the ETag of a
+ * previous response in the {@code If-None-Match} header; if the resource has
+ * not changed since, the response is 304 (not modified) without a body.
+ */
+final class ETags {
+
+	private ETags() {
+	}
+
+	/**
+	 * Tells whether an If-None-Match header matches the current ETag of a
+	 * resource, using the weak comparison of RFC 9110.
+	 *
+	 * @param ifNoneMatch The If-None-Match header, may be null.
+	 * @param eTag        The current ETag of the resource.
+	 * @return true if one of the ETags of the header is the current one.
+	 */
+	static boolean matches(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the response telling that the resource has not changed.
+	 *
+	 * @param eTag The current ETag of the resource.
+	 * @return ResponseEntity with the status not modified.
+	 */
+	static <T> ResponseEntity<T> notModified(String eTag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+	}
+
+	/**
+	 * Builds the response of a resource, to be revalidated before being reused
+	 * from a cache.
+	 *
+	 * @param eTag The current ETag of the resource.
+	 * @param body The resource.
+	 * @return ResponseEntity with the status ok.
+	 */
+	static <T> ResponseEntity<T> ok(String eTag, T body) {
+		return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(body);
+	}
+
+}
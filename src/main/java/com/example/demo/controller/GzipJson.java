@@ -0,0 +1,89 @@
+package com.example.demo.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Helpers for the endpoints serving JSON already compressed with gzip, such as
+ * the snapshots of the results of closed surveys. The bytes are sent as they
+ * are to the clients accepting gzip, and decompressed for the others.
+ */
+final class GzipJson {
+
+	private static final String GZIP = "gzip";
+
+	private GzipJson() {
+	}
+
+	/**
+	 * Tells whether an Accept-Encoding header accepts gzip, either by name or
+	 * with the wildcard, and without a quality of zero.
+	 *
+	 * @param acceptEncoding The Accept-Encoding header, may be null.
+	 * @return true if the response can be compressed with gzip.
+	 */
+	static boolean accepted(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String candidate : acceptEncoding.split(",")) {
+			String[] parameters = candidate.split(";");
+			String coding = parameters[0].trim();
+			if (!coding.equalsIgnoreCase(GZIP) && !coding.equals("*")) {
+				continue;
+			}
+			if (!hasZeroQuality(parameters)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the response of a compressed JSON document.
+	 *
+	 * @param acceptEncoding The Accept-Encoding header of the request, may be
+	 *                       null.
+	 * @param gzip           The document compressed with gzip.
+	 * @return ResponseEntity with the status ok, compressed only if the client
+	 *         accepts it.
+	 */
+	static ResponseEntity<Object> ok(String acceptEncoding, byte[] gzip) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (accepted(acceptEncoding)) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(gzip);
+		}
+		return response.body(decompress(gzip));
+	}
+
+	private static boolean hasZeroQuality(String[] parameters) {
+		for (int i = 1; i < parameters.length; i++) {
+			String parameter = parameters[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2)) == 0;
+				} catch (NumberFormatException e) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static byte[] decompress(byte[] gzip) {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
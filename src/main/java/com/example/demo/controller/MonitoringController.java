@@ -0,0 +1,57 @@
+package com.example.demo.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.model.CacheStatsDTO;
+import com.example.demo.service.CacheStatsService;
+import com.example.demo.service.RatingCounters;
+
+/**
+ * Controller class for handling monitoring endpoints.
+ */
+@RestController
+@RequestMapping("/api")
+public class MonitoringController {
+
+	private final CacheStatsService cacheStatsService;
+	private final RatingCounters ratingCounters;
+
+	/**
+	 * Constructor for MonitoringController.
+	 *
+	 * @param cacheStatsService Service exposing the usage counters of the caches.
+	 * @param ratingCounters    In-memory rating counters of the questions.
+	 */
+	public MonitoringController(CacheStatsService cacheStatsService, RatingCounters ratingCounters) {
+		this.cacheStatsService = cacheStatsService;
+		this.ratingCounters = ratingCounters;
+	}
+
+	/**
+	 * Retrieves the hit, miss and eviction counters of the caches.
+	 *
+	 * @return ResponseEntity containing the counters of every cache.
+	 */
+	@GetMapping("/monitoring/caches")
+	public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+		return ResponseEntity.ok(cacheStatsService.getCacheStats());
+	}
+
+	/**
+	 * Compares the in-memory rating counters with the ANSWER table. The table is
+	 * read in full, this is meant for occasional checks.
+	 *
+	 * @return ResponseEntity containing the IDs of the questions whose counters
+	 *         do not match the table, empty if they are consistent.
+	 */
+	@GetMapping("/monitoring/rating-counters")
+	public ResponseEntity<List<Long>> getRatingCountersInconsistencies() {
+		return ResponseEntity.ok(ratingCounters.findInconsistencies());
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.example.demo.controller;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Helpers for the keyset paginated endpoints. A page is requested with the
+ * parameters {@code after} (the last ID of the previous page, exclusive) and
+ * {@code limit}. When a page is full, the response has a {@code Link} header
+ * pointing to the next page.
+ */
+final class Pagination {
+
+	static final int DEFAULT_LIMIT = 100;
+	static final int MAX_LIMIT = 1000;
+
+	private Pagination() {
+	}
+
+	/**
+	 * Returns the ID after which the page starts.
+	 *
+	 * @param after The requested ID, may be null.
+	 * @return The requested ID, or 0 to start from the beginning.
+	 */
+	static long after(Long after) {
+		return after == null ? 0 : after;
+	}
+
+	/**
+	 * Returns the size of the page, between 1 and {@link #MAX_LIMIT}.
+	 *
+	 * @param limit The requested size, may be null.
+	 * @return The size of the page.
+	 */
+	static int limit(Integer limit) {
+		if (limit == null) {
+			return DEFAULT_LIMIT;
+		}
+		return Math.min(MAX_LIMIT, Math.max(1, limit));
+	}
+
+	/**
+	 * Builds the headers of a page, with a link to the next page if the page is
+	 * full.
+	 *
+	 * @param page  The elements of the page.
+	 * @param limit The size of the page.
+	 * @param id    Function returning the ID of an element.
+	 * @return The headers of the response.
+	 */
+	static <T> HttpHeaders headers(List<T> page, int limit, Function<T, Long> id) {
+		HttpHeaders headers = new HttpHeaders();
+		if (page.size() == limit) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", id.apply(page.get(page.size() - 1)))
+					.replaceQueryParam("limit", limit)
+					.toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return headers;
+	}
+
+}
@@ -6,10 +6,12 @@ import com.example.demo.model.Survey;
 import com.example.demo.service.QuestionService;
 import com.example.demo.service.ResponseService;
 import com.example.demo.service.SurveyService;
+import com.example.demo.service.SurveyVersions;
 
 import java.net.URI;
 import java.util.UUID;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -24,6 +26,7 @@ public class QuestionController {
 	private final QuestionService questionService;
 	private final SurveyService surveyService;
 	private final ResponseService responseService;
+	private final SurveyVersions surveyVersions;
 
 	/**
 	 * Constructor for QuestionController.
@@ -31,12 +34,15 @@ public class QuestionController {
 	 * @param questionService Service for managing questions.
 	 * @param surveyService   Service for managing surveys.
 	 * @param responseService Service for managing responses.
+	 * @param surveyVersions  Versions of the surveys, for the ETags of their
+	 *                        questions.
 	 */
 	public QuestionController(QuestionService questionService, SurveyService surveyService,
-			ResponseService responseService) {
+			ResponseService responseService, SurveyVersions surveyVersions) {
 		this.questionService = questionService;
 		this.surveyService = surveyService;
 		this.responseService = responseService;
+		this.surveyVersions = surveyVersions;
 	}
 
 	/**
@@ -201,14 +207,25 @@ public class QuestionController {
 	}
 
 	/**
-	 * Retrieves all questions associated with a survey.
+	 * Retrieves all questions associated with a survey. The response has an
+	 * ETag; if the If-None-Match header has the current one, the questions are
+	 * not read again.
 	 * 
-	 * @param surveyId The ID of the survey.
-	 * @return ResponseEntity containing questions if found, otherwise returns no
-	 *         content.
+	 * @param surveyId    The ID of the survey.
+	 * @param ifNoneMatch The ETags of the questions known by the client
+	 *                    (optional).
+	 * @return ResponseEntity containing questions if found, not modified if the
+	 *         questions have not changed, otherwise returns no content.
 	 */
 	@GetMapping("/surveys/{surveyId}/question")
-	public ResponseEntity<Iterable<Question>> getAllQuestionsBySurveyId(@PathVariable("surveyId") Long surveyId) {
+	public ResponseEntity<Iterable<Question>> getAllQuestionsBySurveyId(@PathVariable("surveyId") Long surveyId,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// The version is read first, so the ETag is never newer than the questions
+		String eTag = surveyVersions.eTagOfQuestions(surveyId);
+		if (ETags.matches(ifNoneMatch, eTag)) {
+			return ETags.notModified(eTag);
+		}
+
 		Survey survey = surveyService.findSurvey(surveyId);
 
 		if (survey == null) {
@@ -216,7 +233,7 @@ public class QuestionController {
 		}
 
 		Iterable<Question> questions = questionService.findBySurveyId(surveyId);
-		return ResponseEntity.ok(questions);
+		return ETags.ok(eTag, questions);
 
 	}
 
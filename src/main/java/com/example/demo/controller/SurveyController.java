@@ -1,65 +1,117 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.CreatedSurveyDTO;
 import com.example.demo.model.ResponseModel;
 import com.example.demo.model.Survey;
+import com.example.demo.model.SurveySummaryDTO;
+import com.example.demo.model.SurveyWithQuestionsDTO;
 import com.example.demo.service.ResponseService;
 import com.example.demo.service.SurveyService;
+import com.example.demo.service.SurveyVersions;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
 /**
  * Controller class for handling survey-related endpoints.
  */
 @RestController
 @RequestMapping("/api")
 public class SurveyController {
+	private static final Set<String> SURVEY_FIELDS = Set.of("id", "title", "desc");
+
 	@Autowired
 	private final SurveyService surveyService;
 	private final ResponseService responseService;
+	private final SurveyVersions surveyVersions;
 
 	/**
 	 * Constructor for SurveyController.
 	 * 
 	 * @param surveyService   Service for managing surveys.
 	 * @param responseService Service for managing responses.
+	 * @param surveyVersions  Versions of the surveys, for their ETags.
 	 */
 	public SurveyController(SurveyService surveyService,
-			ResponseService responseService) {
+			ResponseService responseService, SurveyVersions surveyVersions) {
 		this.surveyService = surveyService;
 		this.responseService = responseService;
+		this.surveyVersions = surveyVersions;
 	}
 
 	/**
-	 * Retrieves a survey by its ID.
+	 * Retrieves a survey by its ID. The response has an ETag; if the
+	 * If-None-Match header has the current one, the survey is not read again.
 	 * 
-	 * @param surveyId The ID of the survey.
-	 * @return ResponseEntity containing the survey if found, otherwise returns
-	 *         no content.
+	 * @param surveyId    The ID of the survey.
+	 * @param ifNoneMatch The ETags of the survey known by the client (optional).
+	 * @return ResponseEntity containing the survey if found, not modified if the
+	 *         survey has not changed, otherwise returns no content.
 	 */
 	@GetMapping("/surveys/{surveyId}")
-	public ResponseEntity<Survey> getSurveyById(@PathVariable("surveyId") Long surveyId) {
+	public ResponseEntity<Survey> getSurveyById(@PathVariable("surveyId") Long surveyId,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		// The version is read first, so the ETag is never newer than the survey
+		String eTag = surveyVersions.eTagOfSurvey(surveyId);
+		if (ETags.matches(ifNoneMatch, eTag)) {
+			return ETags.notModified(eTag);
+		}
 		Survey survey = surveyService.findSurvey(surveyId);
 		if (survey == null) {
 			return ResponseEntity.noContent().build();
 		} else {
-			return ResponseEntity.ok(survey);
+			return ETags.ok(eTag, survey);
 		}
 	}
 
 	/**
-	 * Retrieves all surveys.
+	 * Retrieves a page of surveys, ordered by ID. If the page is full, the Link
+	 * header of the response points to the next page.
 	 * 
-	 * @return Iterable of all surveys.
+	 * @param after  The ID of the last survey of the previous page (optional).
+	 * @param limit  The maximum number of surveys of the page (optional).
+	 * @param title  The prefix of the titles of the surveys, case sensitive
+	 *               (optional).
+	 * @param fields The comma separated fields of the surveys to return, among
+	 *               id, title and desc (optional, all by default).
+	 * @return ResponseEntity containing the surveys of the page, or bad request
+	 *         if a field is unknown.
 	 */
 	@GetMapping("/surveys")
-	public ResponseEntity<Iterable<Survey>> getAllSurveys() {
-		return ResponseEntity.ok(surveyService.getAllSurveys());
+	public ResponseEntity<MappingJacksonValue> getAllSurveys(
+			@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit,
+			@RequestParam(name = "title", required = false) String title,
+			@RequestParam(name = "fields", required = false) String fields) {
+		Set<String> requestedFields = fields == null ? SURVEY_FIELDS : Set.copyOf(Arrays.asList(fields.split(",")));
+		if (!SURVEY_FIELDS.containsAll(requestedFields)) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		int pageLimit = Pagination.limit(limit);
+		List<SurveySummaryDTO> surveys = surveyService.getSurveySummariesAfter(Pagination.after(after), pageLimit,
+				title, requestedFields.contains("desc"));
+		HttpHeaders headers = Pagination.headers(surveys, pageLimit, SurveySummaryDTO::getId);
+
+		// The ID is always read, it is the key of the next page, but only the requested
+		// fields are written
+		MappingJacksonValue body = new MappingJacksonValue(surveys);
+		body.setFilters(new SimpleFilterProvider().addFilter(SurveySummaryDTO.FIELDS_FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept(requestedFields)));
+		return ResponseEntity.ok().headers(headers).body(body);
 	}
 
 	/**
@@ -80,8 +132,14 @@ public class SurveyController {
 	 * @return Iterable of ResponseModel containing survey details.
 	 */
 	@GetMapping(path = "/surveys/json", produces = "application/json")
-	public ResponseEntity<Iterable<ResponseModel<Survey>>> getAllSurveysJson() {
-		return ResponseEntity.ok(responseService.getAllSurveyJson());
+	public ResponseEntity<Iterable<ResponseModel<Survey>>> getAllSurveysJson(
+			@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		int pageLimit = Pagination.limit(limit);
+		List<ResponseModel<Survey>> surveys = responseService.getAllSurveyJson(Pagination.after(after), pageLimit);
+		return ResponseEntity.ok()
+				.headers(Pagination.headers(surveys, pageLimit, ResponseModel::getId))
+				.body(surveys);
 	}
 
 	/**
@@ -99,6 +157,66 @@ public class SurveyController {
 		return ResponseEntity.created(locationNewSurvey).build();
 	}
 
+	/**
+	 * Creates a new survey with all its questions, in a single transaction.
+	 * 
+	 * @param newSurvey The new survey and its questions.
+	 * @param ucb       UriComponentsBuilder for building URI.
+	 * @return ResponseEntity with the URI of the newly created survey and the IDs
+	 *         of the survey and of its questions, or bad request if the survey
+	 *         has no title or a question has no text.
+	 */
+	@PostMapping("/surveys/bulk")
+	public ResponseEntity<CreatedSurveyDTO> createSurveyWithQuestions(@RequestBody SurveyWithQuestionsDTO newSurvey,
+			UriComponentsBuilder ucb) {
+		try {
+			CreatedSurveyDTO createdSurvey = responseService.createSurveyWithQuestions(newSurvey);
+			URI locationNewSurvey = ucb.path("api/surveys/{id}").buildAndExpand(createdSurvey.getId()).toUri();
+
+			return ResponseEntity.created(locationNewSurvey).body(createdSurvey);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	/**
+	 * Closes a survey: it takes no more submissions, and its results are served
+	 * from snapshots until it is reopened.
+	 *
+	 * @param surveyId The ID of the survey to close.
+	 * @return ResponseEntity containing the closed survey if found, no content if
+	 *         not found, or internal server error if its results could not be
+	 *         materialized, in which case the survey is left open.
+	 */
+	@PostMapping("/surveys/{surveyId}/close")
+	public ResponseEntity<Survey> closeSurvey(@PathVariable("surveyId") Long surveyId) {
+		try {
+			return ResponseEntity.ok(responseService.closeSurvey(surveyId));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		} catch (Exception e) {
+			return ResponseEntity.internalServerError().build();
+		}
+	}
+
+	/**
+	 * Reopens a closed survey to submissions.
+	 *
+	 * @param surveyId The ID of the survey to reopen.
+	 * @return ResponseEntity containing the reopened survey if found, otherwise
+	 *         returns no content.
+	 */
+	@PostMapping("/surveys/{surveyId}/reopen")
+	public ResponseEntity<Survey> reopenSurvey(@PathVariable("surveyId") Long surveyId) {
+		try {
+			return ResponseEntity.ok(responseService.reopenSurvey(surveyId));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.noContent().build();
+		} catch (Exception e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
 	/**
 	 * Deletes a survey by its ID.
 	 * 
@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class DuplicateSubmissionException extends RuntimeException {
+	public DuplicateSubmissionException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class SurveyClosedException extends RuntimeException {
+	public SurveyClosedException(String message) {
+		super(message);
+	}
+}
@@ -1,15 +1,22 @@
 package com.example.demo.model;
 
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.util.UUID;
 
@@ -17,26 +24,37 @@ import java.util.UUID;
  * Entity class representing an Answer.
  */
 @Entity
-@Table(name = "ANSWER")
+@Table(name = "ANSWER", indexes = {
+		// Answers of a question (results) and answer of a user to a question
+		@Index(name = "IDX_ANSWER_QUESTION_USER", columnList = "question_id, user_uuid"),
+		// Answers of a user
+		@Index(name = "IDX_ANSWER_USER_QUESTION", columnList = "user_uuid, question_id") })
 public class Answer {
+	// A pooled sequence (instead of an identity column) lets Hibernate batch the
+	// inserts of a submission.
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answer_seq")
+	@SequenceGenerator(name = "answer_seq", sequenceName = "ANSWER_SEQ", allocationSize = 50)
 	@Column(name = "answer_id")
 	private Long id;
 
 	@Column(name = "answer_rating")
 	private Integer rating;
 
+	// Stored as a native 16 bytes UUID, never as its 36 characters text
 	@Column(name = "user_uuid", nullable = false)
+	@JdbcTypeCode(SqlTypes.UUID)
 	private UUID userUuid;
 
-	@ManyToOne
+	// Lazy, the queries needing the question fetch it (see AnswerRepository)
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "question_id", nullable = false)
 	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 	private Question question;
 
-	final static Integer MIN_VALUE = 1;
-	final static Integer MAX_VALUE = 5;
+	public final static Integer MIN_VALUE = 1;
+	public final static Integer MAX_VALUE = 5;
 
 	public Answer() {
 	}
@@ -89,7 +107,7 @@ public class Answer {
 	}
 
 	public void setRating(Integer rating) {
-		this.rating = rating;
+		this.rating = validateRating(rating);
 	}
 
 	public void setQuestion(Question question) {
@@ -0,0 +1,88 @@
+package com.example.demo.model;
+
+import java.util.UUID;
+
+/**
+ * Data transfer object representing an answer of a list. The question is only
+ * referred to by its ID, so the lists do not repeat the question and survey of
+ * every answer.
+ */
+public class AnswerSummaryDTO {
+	private Long id;
+	private Integer rating;
+	private UUID userUuid;
+	private Long questionId;
+
+	public AnswerSummaryDTO() {
+	}
+
+	public AnswerSummaryDTO(Long id, Integer rating, UUID userUuid, Long questionId) {
+		this.id = id;
+		this.rating = rating;
+		this.userUuid = userUuid;
+		this.questionId = questionId;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Integer getRating() {
+		return this.rating;
+	}
+
+	public void setRating(Integer rating) {
+		this.rating = rating;
+	}
+
+	public UUID getUserUuid() {
+		return this.userUuid;
+	}
+
+	public void setUserUuid(UUID userUuid) {
+		this.userUuid = userUuid;
+	}
+
+	public Long getQuestionId() {
+		return this.questionId;
+	}
+
+	public void setQuestionId(Long questionId) {
+		this.questionId = questionId;
+	}
+
+	public AnswerSummaryDTO id(Long id) {
+		setId(id);
+		return this;
+	}
+
+	public AnswerSummaryDTO rating(Integer rating) {
+		setRating(rating);
+		return this;
+	}
+
+	public AnswerSummaryDTO userUuid(UUID userUuid) {
+		setUserUuid(userUuid);
+		return this;
+	}
+
+	public AnswerSummaryDTO questionId(Long questionId) {
+		setQuestionId(questionId);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", rating='" + getRating() + "'" +
+				", userUuid='" + getUserUuid() + "'" +
+				", questionId='" + getQuestionId() + "'" +
+				"}";
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.example.demo.model;
+
+/**
+ * Data transfer object representing the usage counters of a cache.
+ */
+public class CacheStatsDTO {
+	private String name;
+	private long size;
+	private long hitCount;
+	private long missCount;
+	private double hitRate;
+	private long evictionCount;
+
+	public CacheStatsDTO() {
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getSize() {
+		return this.size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+
+	public double getHitRate() {
+		return this.hitRate;
+	}
+
+	public void setHitRate(double hitRate) {
+		this.hitRate = hitRate;
+	}
+
+	public long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+
+	public CacheStatsDTO name(String name) {
+		setName(name);
+		return this;
+	}
+
+	public CacheStatsDTO size(long size) {
+		setSize(size);
+		return this;
+	}
+
+	public CacheStatsDTO hitCount(long hitCount) {
+		setHitCount(hitCount);
+		return this;
+	}
+
+	public CacheStatsDTO missCount(long missCount) {
+		setMissCount(missCount);
+		return this;
+	}
+
+	public CacheStatsDTO hitRate(double hitRate) {
+		setHitRate(hitRate);
+		return this;
+	}
+
+	public CacheStatsDTO evictionCount(long evictionCount) {
+		setEvictionCount(evictionCount);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" name='" + getName() + "'" +
+				", size='" + getSize() + "'" +
+				", hitCount='" + getHitCount() + "'" +
+				", missCount='" + getMissCount() + "'" +
+				", hitRate='" + getHitRate() + "'" +
+				", evictionCount='" + getEvictionCount() + "'" +
+				"}";
+	}
+
+}
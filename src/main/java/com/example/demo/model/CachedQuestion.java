@@ -0,0 +1,35 @@
+package com.example.demo.model;
+
+/**
+ * Immutable copy of a question, as kept in the questions by survey cache. Each
+ * read builds its own Question from it, whose survey only has its ID, as the
+ * survey of a question is written to JSON.
+ *
+ * @param id       The ID of the question.
+ * @param text     The text of the question.
+ * @param surveyId The ID of the survey of the question.
+ */
+public record CachedQuestion(Long id, String text, Long surveyId) {
+
+	/**
+	 * @param question The question to copy.
+	 * @return The immutable copy of the question.
+	 */
+	public static CachedQuestion of(Question question) {
+		return new CachedQuestion(question.getId(), question.getText(),
+				question.getSurvey() == null ? null : question.getSurvey().getId());
+	}
+
+	/**
+	 * @return A new detached question with the values of the copy.
+	 */
+	public Question toQuestion() {
+		Survey survey = null;
+		if (surveyId != null) {
+			survey = new Survey();
+			survey.setId(surveyId);
+		}
+		return new Question(id, text, survey);
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.example.demo.model;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of a survey, as kept in the surveys cache. A cached value is
+ * shared by every request, so each read builds its own Survey from it instead
+ * of handing out an entity that a caller could modify.
+ *
+ * @param id     The ID of the survey.
+ * @param uuid   The UUID of the survey.
+ * @param title  The title of the survey.
+ * @param desc   The description of the survey.
+ * @param closed Whether the survey is closed.
+ */
+public record CachedSurvey(Long id, UUID uuid, String title, String desc, boolean closed) {
+
+	/**
+	 * @param survey The survey to copy.
+	 * @return The immutable copy of the survey.
+	 */
+	public static CachedSurvey of(Survey survey) {
+		return new CachedSurvey(survey.getId(), survey.getUuid(), survey.getTitle(), survey.getDesc(),
+				survey.isClosed());
+	}
+
+	/**
+	 * @return A new detached survey with the values of the copy.
+	 */
+	public Survey toSurvey() {
+		return new Survey(id, uuid, title, desc, closed);
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Data transfer object representing the IDs of a survey created with its
+ * questions. The IDs of the questions are in the order of the request.
+ */
+public class CreatedSurveyDTO {
+	private Long id;
+	private List<Long> questionIds;
+
+	public CreatedSurveyDTO() {
+	}
+
+	public CreatedSurveyDTO(Long id, List<Long> questionIds) {
+		this.id = id;
+		this.questionIds = questionIds;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public List<Long> getQuestionIds() {
+		return this.questionIds;
+	}
+
+	public void setQuestionIds(List<Long> questionIds) {
+		this.questionIds = questionIds;
+	}
+
+	public CreatedSurveyDTO id(Long id) {
+		setId(id);
+		return this;
+	}
+
+	public CreatedSurveyDTO questionIds(List<Long> questionIds) {
+		setQuestionIds(questionIds);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", questionIds='" + getQuestionIds() + "'" +
+				"}";
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Submission of a user to a survey that was validated and is ready to be
+ * written to the database.
+ *
+ * @param id       The ID of the submission.
+ * @param survey   The survey answered.
+ * @param userUuid The UUID of the user.
+ * @param answers  The answers to write, their questions belong to the survey.
+ */
+public record PendingSubmission(UUID id, Survey survey, UUID userUuid, List<Answer> answers) {
+}
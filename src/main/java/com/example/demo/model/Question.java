@@ -3,32 +3,44 @@ package com.example.demo.model;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
  * Entity class representing a Question.
  */
 @Entity
-@Table(name = "QUESTION")
+@Table(name = "QUESTION", indexes = @Index(name = "IDX_QUESTION_SURVEY", columnList = "survey_id"))
 public class Question {
+	// A pooled sequence (instead of an identity column) lets Hibernate batch the
+	// inserts of the questions of a survey.
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+	@SequenceGenerator(name = "question_seq", sequenceName = "QUESTION_SEQ", allocationSize = 50)
 	@Column(name = "question_id")
 	private Long id;
 
 	@Column(name = "question_text")
 	private String text;
 
-	@ManyToOne
+	// Lazy and written as {"id": ...} only: the ID of a survey proxy is read
+	// without loading the survey, and lists of questions do not repeat it
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "survey_id", nullable = false)
 	@OnDelete(action = OnDeleteAction.CASCADE)
+	@JsonIgnoreProperties(value = { "title", "desc", "closed", "hibernateLazyInitializer",
+			"handler" }, allowSetters = true)
 	private Survey survey;
 
 	public Question() {
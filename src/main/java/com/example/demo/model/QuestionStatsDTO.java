@@ -0,0 +1,135 @@
+package com.example.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * Data transfer object representing the aggregated ratings of a question.
+ */
+public class QuestionStatsDTO {
+	private Long id;
+	private String text;
+	private long count;
+	private Double mean;
+	private Integer min;
+	private Integer max;
+	private long[] histogram;
+
+	public QuestionStatsDTO() {
+	}
+
+	public QuestionStatsDTO(Long id, String text, long count, Double mean, Integer min, Integer max,
+			long[] histogram) {
+		this.id = id;
+		this.text = text;
+		this.count = count;
+		this.mean = mean;
+		this.min = min;
+		this.max = max;
+		this.histogram = histogram;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getText() {
+		return this.text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public Double getMean() {
+		return this.mean;
+	}
+
+	public void setMean(Double mean) {
+		this.mean = mean;
+	}
+
+	public Integer getMin() {
+		return this.min;
+	}
+
+	public void setMin(Integer min) {
+		this.min = min;
+	}
+
+	public Integer getMax() {
+		return this.max;
+	}
+
+	public void setMax(Integer max) {
+		this.max = max;
+	}
+
+	public long[] getHistogram() {
+		return this.histogram;
+	}
+
+	public void setHistogram(long[] histogram) {
+		this.histogram = histogram;
+	}
+
+	public QuestionStatsDTO id(Long id) {
+		setId(id);
+		return this;
+	}
+
+	public QuestionStatsDTO text(String text) {
+		setText(text);
+		return this;
+	}
+
+	public QuestionStatsDTO count(long count) {
+		setCount(count);
+		return this;
+	}
+
+	public QuestionStatsDTO mean(Double mean) {
+		setMean(mean);
+		return this;
+	}
+
+	public QuestionStatsDTO min(Integer min) {
+		setMin(min);
+		return this;
+	}
+
+	public QuestionStatsDTO max(Integer max) {
+		setMax(max);
+		return this;
+	}
+
+	public QuestionStatsDTO histogram(long[] histogram) {
+		setHistogram(histogram);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", text='" + getText() + "'" +
+				", count='" + getCount() + "'" +
+				", mean='" + getMean() + "'" +
+				", min='" + getMin() + "'" +
+				", max='" + getMax() + "'" +
+				", histogram='" + Arrays.toString(getHistogram()) + "'" +
+				"}";
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.example.demo.model;
+
+/**
+ * Projection representing the number of answers with a given rating for a
+ * question.
+ */
+public interface RatingCount {
+
+	Long getSurveyId();
+
+	Long getQuestionId();
+
+	String getQuestionText();
+
+	Integer getRating();
+
+	Long getTotal();
+
+}
@@ -0,0 +1,19 @@
+package com.example.demo.model;
+
+/**
+ * State of a submission accepted for asynchronous writing.
+ */
+public enum SubmissionStatus {
+	/**
+	 * Waiting in the queue, not written yet.
+	 */
+	QUEUED,
+	/**
+	 * Written to the database.
+	 */
+	DURABLE,
+	/**
+	 * Could not be written, none of its answers were saved.
+	 */
+	FAILED
+}
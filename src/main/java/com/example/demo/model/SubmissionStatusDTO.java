@@ -0,0 +1,70 @@
+package com.example.demo.model;
+
+import java.util.UUID;
+
+/**
+ * Data transfer object representing the state of an asynchronous submission.
+ */
+public class SubmissionStatusDTO {
+	private UUID id;
+	private Long surveyId;
+	private SubmissionStatus status;
+
+	public SubmissionStatusDTO() {
+	}
+
+	public SubmissionStatusDTO(UUID id, Long surveyId, SubmissionStatus status) {
+		this.id = id;
+		this.surveyId = surveyId;
+		this.status = status;
+	}
+
+	public UUID getId() {
+		return this.id;
+	}
+
+	public void setId(UUID id) {
+		this.id = id;
+	}
+
+	public Long getSurveyId() {
+		return this.surveyId;
+	}
+
+	public void setSurveyId(Long surveyId) {
+		this.surveyId = surveyId;
+	}
+
+	public SubmissionStatus getStatus() {
+		return this.status;
+	}
+
+	public void setStatus(SubmissionStatus status) {
+		this.status = status;
+	}
+
+	public SubmissionStatusDTO id(UUID id) {
+		setId(id);
+		return this;
+	}
+
+	public SubmissionStatusDTO surveyId(Long surveyId) {
+		setSurveyId(surveyId);
+		return this;
+	}
+
+	public SubmissionStatusDTO status(SubmissionStatus status) {
+		setStatus(status);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", surveyId='" + getSurveyId() + "'" +
+				", status='" + getStatus() + "'" +
+				"}";
+	}
+
+}
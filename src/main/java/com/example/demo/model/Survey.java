@@ -1,5 +1,9 @@
 package com.example.demo.model;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.*;
 
 import java.util.UUID;
@@ -8,7 +12,7 @@ import java.util.UUID;
  * Entity class representing a Survey.
  */
 @Entity
-@Table(name = "SURVEY")
+@Table(name = "SURVEY", indexes = @Index(name = "IDX_SURVEY_TITLE", columnList = "survey_title"))
 public class Survey {
 
 	@Id
@@ -25,6 +29,13 @@ public class Survey {
 	@Column(name = "survey_desc")
 	private String desc;
 
+	// A closed survey takes no more submissions, its results are served from a
+	// snapshot (see SurveyResultsSnapshot)
+	@Column(name = "survey_closed", nullable = false)
+	@ColumnDefault("false")
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private boolean closed;
+
 	protected Survey() {
 	}
 
@@ -34,11 +45,19 @@ public class Survey {
 		this.uuid = java.util.UUID.randomUUID();
 	}
 
+	Survey(Long id, UUID uuid, String title, String desc, boolean closed) {
+		this.id = id;
+		this.uuid = uuid;
+		this.title = title;
+		this.desc = desc;
+		this.closed = closed;
+	}
+
 	public Long getId() {
 		return id;
 	}
 
-	private UUID getUuid() {
+	UUID getUuid() {
 		return uuid;
 	}
 
@@ -58,6 +77,14 @@ public class Survey {
 		return desc;
 	}
 
+	public boolean isClosed() {
+		return closed;
+	}
+
+	public void setClosed(boolean closed) {
+		this.closed = closed;
+	}
+
 	@Override
 	public String toString() {
 		return "SURVEY \n\tid=" + id.toString() + ",\n\ttitle=" + title + "\n\tdesc="
@@ -0,0 +1,48 @@
+package com.example.demo.model;
+
+import java.util.UUID;
+
+/**
+ * Flat row of the answers of a survey, joined with the text of their
+ * question.
+ * 
+ * The UUID of the user is kept as its two halves so that comparing the users
+ * of consecutive rows does not need a UUID object per row. A question without
+ * answers has an answer ID of 0 and a null rating.
+ *
+ * @param userUuidMsb  The most significant bits of the UUID of the user.
+ * @param userUuidLsb  The least significant bits of the UUID of the user.
+ * @param questionId   The ID of the question.
+ * @param questionText The text of the question.
+ * @param answerId     The ID of the answer, 0 for a question without answers.
+ * @param rating       The rating of the answer, null if the answer has no
+ *                     rating.
+ */
+public record SurveyAnswerRow(long userUuidMsb, long userUuidLsb, long questionId, String questionText,
+		long answerId, Integer rating) {
+
+	/**
+	 * @return true if the row is an answer, false for a question without
+	 *         answers.
+	 */
+	public boolean hasAnswer() {
+		return answerId != 0;
+	}
+
+	/**
+	 * @param userUuid A UUID, may be null.
+	 * @return true if the answer of the row is from the user with this UUID.
+	 */
+	public boolean isFromUser(UUID userUuid) {
+		return userUuid != null && userUuid.getMostSignificantBits() == userUuidMsb
+				&& userUuid.getLeastSignificantBits() == userUuidLsb;
+	}
+
+	/**
+	 * @return A new UUID object for the user of the row.
+	 */
+	public UUID userUuid() {
+		return new UUID(userUuidMsb, userUuidLsb);
+	}
+
+}
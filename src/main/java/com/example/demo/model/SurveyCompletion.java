@@ -0,0 +1,80 @@
+package com.example.demo.model;
+
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Entity class recording that a user answered a survey.
+ * 
+ * There is at most one row per (survey, user) pair, so checking if a user
+ * already answered a survey is a single lookup on the unique index instead of
+ * a scan of all the answers of the survey.
+ */
+@Entity
+@Table(name = "SURVEY_COMPLETION", uniqueConstraints = @UniqueConstraint(name = "UK_SURVEY_COMPLETION_SURVEY_USER", columnNames = {
+		"survey_id", "user_uuid" }), indexes = @Index(name = "IDX_SURVEY_COMPLETION_USER_SURVEY", columnList = "user_uuid, survey_id"))
+public class SurveyCompletion {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "completion_id")
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "survey_id", nullable = false)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private Survey survey;
+
+	// Stored as a native 16 bytes UUID, never as its 36 characters text
+	@Column(name = "user_uuid", nullable = false)
+	@JdbcTypeCode(SqlTypes.UUID)
+	private UUID userUuid;
+
+	public SurveyCompletion() {
+	}
+
+	public SurveyCompletion(Survey survey, UUID userUuid) {
+		this.survey = survey;
+		this.userUuid = userUuid;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Survey getSurvey() {
+		return survey;
+	}
+
+	public void setSurvey(Survey survey) {
+		this.survey = survey;
+	}
+
+	public UUID getUserUuid() {
+		return userUuid;
+	}
+
+	public void setUserUuid(UUID userUuid) {
+		this.userUuid = userUuid;
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.example.demo.model;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Entity class storing the results of a closed survey, as gzip-compressed
+ * JSON ready to be sent.
+ * 
+ * There is at most one snapshot per (survey, format) pair. The results of a
+ * closed survey only change when it is edited, which deletes its snapshots.
+ */
+@Entity
+@Table(name = "SURVEY_RESULTS_SNAPSHOT", uniqueConstraints = @UniqueConstraint(name = "UK_SURVEY_RESULTS_SNAPSHOT_SURVEY_FORMAT", columnNames = {
+		"survey_id", "snapshot_format" }))
+public class SurveyResultsSnapshot {
+
+	/**
+	 * The results endpoints served from a snapshot.
+	 */
+	public enum Format {
+		/** The results of {@code GET /api/surveys/{id}/results/full}. */
+		FULL,
+		/** The results of {@code GET /api/surveys/{id}/results}. */
+		BY_USER
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "snapshot_id")
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "survey_id", nullable = false)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private Survey survey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "snapshot_format", nullable = false)
+	private Format format;
+
+	@Lob
+	@Column(name = "snapshot_gzip", nullable = false)
+	private byte[] gzip;
+
+	public SurveyResultsSnapshot() {
+	}
+
+	public SurveyResultsSnapshot(Survey survey, Format format, byte[] gzip) {
+		this.survey = survey;
+		this.format = format;
+		this.gzip = gzip;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Survey getSurvey() {
+		return survey;
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	public byte[] getGzip() {
+		return gzip;
+	}
+
+}
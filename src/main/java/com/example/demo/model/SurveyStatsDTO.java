@@ -0,0 +1,70 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Data transfer object representing the aggregated ratings of a survey.
+ */
+public class SurveyStatsDTO {
+	private Long id;
+	private String title;
+	private List<QuestionStatsDTO> questions;
+
+	public SurveyStatsDTO() {
+	}
+
+	public SurveyStatsDTO(Long id, String title, List<QuestionStatsDTO> questions) {
+		this.id = id;
+		this.title = title;
+		this.questions = questions;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public List<QuestionStatsDTO> getQuestions() {
+		return this.questions;
+	}
+
+	public void setQuestions(List<QuestionStatsDTO> questions) {
+		this.questions = questions;
+	}
+
+	public SurveyStatsDTO id(Long id) {
+		setId(id);
+		return this;
+	}
+
+	public SurveyStatsDTO title(String title) {
+		setTitle(title);
+		return this;
+	}
+
+	public SurveyStatsDTO questions(List<QuestionStatsDTO> questions) {
+		setQuestions(questions);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", title='" + getTitle() + "'" +
+				", questions='" + getQuestions() + "'" +
+				"}";
+	}
+
+}
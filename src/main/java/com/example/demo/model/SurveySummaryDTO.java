@@ -0,0 +1,76 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+/**
+ * Data transfer object representing a survey of the catalogue. The fields that
+ * were not requested are left out of the JSON by the {@value #FIELDS_FILTER}
+ * filter, given when the DTO is written (see SurveyController); a requested
+ * field is written even if it is null.
+ */
+@JsonFilter(SurveySummaryDTO.FIELDS_FILTER)
+public class SurveySummaryDTO {
+	public static final String FIELDS_FILTER = "surveySummaryFields";
+
+	private Long id;
+	private String title;
+	private String desc;
+
+	public SurveySummaryDTO() {
+	}
+
+	public SurveySummaryDTO(Long id, String title, String desc) {
+		this.id = id;
+		this.title = title;
+		this.desc = desc;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDesc() {
+		return this.desc;
+	}
+
+	public void setDesc(String desc) {
+		this.desc = desc;
+	}
+
+	public SurveySummaryDTO id(Long id) {
+		setId(id);
+		return this;
+	}
+
+	public SurveySummaryDTO title(String title) {
+		setTitle(title);
+		return this;
+	}
+
+	public SurveySummaryDTO desc(String desc) {
+		setDesc(desc);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" id='" + getId() + "'" +
+				", title='" + getTitle() + "'" +
+				", desc='" + getDesc() + "'" +
+				"}";
+	}
+
+}
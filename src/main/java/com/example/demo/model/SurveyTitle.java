@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+/**
+ * Projection representing a survey without its description.
+ */
+public interface SurveyTitle {
+
+	Long getId();
+
+	String getTitle();
+
+}
@@ -0,0 +1,70 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Data transfer object representing a new survey with all its questions.
+ */
+public class SurveyWithQuestionsDTO {
+	private String title;
+	private String desc;
+	private List<Question> questions;
+
+	public SurveyWithQuestionsDTO() {
+	}
+
+	public SurveyWithQuestionsDTO(String title, String desc, List<Question> questions) {
+		this.title = title;
+		this.desc = desc;
+		this.questions = questions;
+	}
+
+	public String getTitle() {
+		return this.title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDesc() {
+		return this.desc;
+	}
+
+	public void setDesc(String desc) {
+		this.desc = desc;
+	}
+
+	public List<Question> getQuestions() {
+		return this.questions;
+	}
+
+	public void setQuestions(List<Question> questions) {
+		this.questions = questions;
+	}
+
+	public SurveyWithQuestionsDTO title(String title) {
+		setTitle(title);
+		return this;
+	}
+
+	public SurveyWithQuestionsDTO desc(String desc) {
+		setDesc(desc);
+		return this;
+	}
+
+	public SurveyWithQuestionsDTO questions(List<Question> questions) {
+		setQuestions(questions);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "{" +
+				" title='" + getTitle() + "'" +
+				", desc='" + getDesc() + "'" +
+				", questions='" + getQuestions() + "'" +
+				"}";
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.example.demo.monitoring;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter counting the SQL statements executed by every request, recorded by
+ * the {@link StatementCounter} under the URI template of the endpoint.
+ * 
+ * Only the statements executed on the thread of the request are counted: the
+ * bodies streamed with StreamingResponseBody are written by another thread.
+ * The count is recorded once the request is handled, the response is left
+ * untouched: a client may read the whole response just before the count is
+ * recorded.
+ */
+@Component
+@ConditionalOnProperty(name = StatementCounter.ENABLED_PROPERTY, havingValue = "true")
+public class StatementCountFilter extends OncePerRequestFilter {
+
+	private final StatementCounter statementCounter;
+
+	public StatementCountFilter(StatementCounter statementCounter) {
+		this.statementCounter = statementCounter;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+			FilterChain filterChain) throws ServletException, IOException {
+		statementCounter.start();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			long statements = statementCounter.stop();
+			Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			statementCounter.record(request.getMethod(), uri == null ? "UNKNOWN" : uri.toString(), statements);
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.example.demo.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the SQL statements executed by each request.
+ * 
+ * The statements are counted on the thread of the request, between
+ * {@link #start()} and {@link #stop()}, by {@link StatementCountingDataSource}.
+ * The number of statements of every request is recorded in the
+ * http.server.requests.statements metric, by method and URI, and the requests
+ * executing more than the threshold are counted in
+ * http.server.requests.statements.exceeded.
+ * 
+ * The counting is off by default, it wraps every JDBC connection and statement
+ * in a proxy. It is turned on with {@value #ENABLED_PROPERTY}=true, which
+ * creates this counter, its filter and the DataSource wrapper.
+ */
+@Component
+@ConditionalOnProperty(name = StatementCounter.ENABLED_PROPERTY, havingValue = "true")
+public class StatementCounter {
+
+	public static final String ENABLED_PROPERTY = "monitoring.statements.enabled";
+	public static final String STATEMENTS_METRIC = "http.server.requests.statements";
+	public static final String EXCEEDED_METRIC = "http.server.requests.statements.exceeded";
+
+	private static final ThreadLocal<long[]> statements = new ThreadLocal<long[]>();
+
+	private final MeterRegistry meterRegistry;
+	private final int threshold;
+
+	public StatementCounter(MeterRegistry meterRegistry,
+			@Value("${monitoring.statements.threshold:10}") int threshold) {
+		this.meterRegistry = meterRegistry;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Counts a statement executed by the current thread. Does nothing if the
+	 * thread is not counting its statements.
+	 */
+	static void increment() {
+		long[] count = statements.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+
+	/**
+	 * Starts counting the statements executed by the current thread.
+	 */
+	public void start() {
+		statements.set(new long[1]);
+	}
+
+	/**
+	 * Stops counting the statements executed by the current thread.
+	 *
+	 * @return The number of statements executed since {@link #start()}.
+	 */
+	public long stop() {
+		long[] count = statements.get();
+		statements.remove();
+		return count == null ? 0 : count[0];
+	}
+
+	/**
+	 * Records the number of statements executed by a request.
+	 *
+	 * @param method     The HTTP method of the request.
+	 * @param uri        The URI template of the endpoint.
+	 * @param statements The number of statements executed.
+	 */
+	public void record(String method, String uri, long statements) {
+		DistributionSummary.builder(STATEMENTS_METRIC)
+				.baseUnit("statements")
+				.tag("method", method)
+				.tag("uri", uri)
+				.register(meterRegistry)
+				.record(statements);
+		if (statements > threshold) {
+			Counter.builder(EXCEEDED_METRIC)
+					.tag("method", method)
+					.tag("uri", uri)
+					.register(meterRegistry)
+					.increment();
+		}
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.example.demo.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource counting the statements executed through its connections, see
+ * {@link StatementCounter}. A batch counts as one statement, since it is sent
+ * to the database at once.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+	public StatementCountingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return countingConnection(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return countingConnection(super.getConnection(username, password));
+	}
+
+	private static Connection countingConnection(Connection connection) {
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			Object result = invoke(connection, method, args);
+			if (result instanceof CallableStatement callableStatement) {
+				return countingStatement(CallableStatement.class, callableStatement);
+			}
+			if (result instanceof PreparedStatement preparedStatement) {
+				return countingStatement(PreparedStatement.class, preparedStatement);
+			}
+			if (result instanceof Statement statement) {
+				return countingStatement(Statement.class, statement);
+			}
+			return result;
+		});
+	}
+
+	private static <T extends Statement> T countingStatement(Class<T> type, T statement) {
+		return proxy(type, statement, (proxy, method, args) -> {
+			if (method.getName().startsWith("execute")) {
+				StatementCounter.increment();
+			}
+			return invoke(statement, method, args);
+		});
+	}
+
+	private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+				new Class<?>[] { type }, (proxy, method, args) -> {
+					// A proxy is only equal to itself, the other methods go to the target
+					if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+						return proxy == args[0];
+					}
+					if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+						return System.identityHashCode(proxy);
+					}
+					return handler.invoke(proxy, method, args);
+				}));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.example.demo.monitoring;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the DataSource of the application in a
+ * {@link StatementCountingDataSource}, so the statements of JPA and of the
+ * JdbcTemplate repositories are counted alike. Only registered when the
+ * statements are counted, see {@link StatementCounter}.
+ */
+@Component
+@ConditionalOnProperty(name = StatementCounter.ENABLED_PROPERTY, havingValue = "true")
+public class StatementCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+			return new StatementCountingDataSource(dataSource);
+		}
+		return bean;
+	}
+
+}
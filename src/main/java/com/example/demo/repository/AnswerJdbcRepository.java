@@ -0,0 +1,224 @@
+package com.example.demo.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.SurveyAnswerRow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Repository reading answers straight from JDBC result sets, without
+ * materializing entities. Rows are handed to a callback as they come off the
+ * cursor, so the memory used does not depend on the number of rows.
+ * 
+ * It is not a Spring Data repository, so its queries are timed here, under the
+ * same metric and tags as the Spring Data repositories. Only the execution of
+ * the query and the fetching of its rows are timed: the time spent in the
+ * callbacks, e.g. writing the rows to the client, is left out.
+ */
+@Repository
+public class AnswerJdbcRepository {
+
+	private static final int FETCH_SIZE = 500;
+	private static final String INVOCATIONS_METRIC = "spring.data.repository.invocations";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final MeterRegistry meterRegistry;
+
+	public AnswerJdbcRepository(DataSource dataSource, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Reads all the answers with an ID greater than the given one, ordered by ID.
+	 * The columns of the rows are answer_id, answer_rating, user_uuid and
+	 * question_id.
+	 *
+	 * @param after   The ID after which the answers are read.
+	 * @param handler Callback called for every row.
+	 */
+	public void forEachAnswerAfter(long after, RowCallbackHandler handler) {
+		timedFetch("forEachAnswerAfter", callbackTime -> jdbcTemplate.query(
+				"SELECT answer_id, answer_rating, user_uuid, question_id FROM ANSWER "
+				+ "WHERE answer_id > ? ORDER BY answer_id", callbackTime.excluded(handler), after));
+	}
+
+	/**
+	 * Reads all the answers to the questions of a survey with the text of their
+	 * question, in one query. The rows are ordered by user, then by question and
+	 * answer ID, so the answers of a user are consecutive.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param consumer Callback called for every row.
+	 */
+	public void forEachAnswerOfSurvey(long surveyId, Consumer<SurveyAnswerRow> consumer) {
+		timedFetch("forEachAnswerOfSurvey", callbackTime -> jdbcTemplate.query(
+				"SELECT a.user_uuid, q.question_id, q.question_text, a.answer_id, a.answer_rating "
+				+ "FROM QUESTION q JOIN ANSWER a ON a.question_id = q.question_id "
+				+ "WHERE q.survey_id = ? ORDER BY a.user_uuid, q.question_id, a.answer_id",
+				toSurveyAnswerRows(callbackTime.excluded(consumer)), surveyId));
+	}
+
+	/**
+	 * Reads all the questions of a survey with their answers, in one query. The
+	 * rows are ordered by question, then by answer ID, so the answers of a
+	 * question are consecutive. A question without answers has a single row
+	 * without answer, see {@link SurveyAnswerRow#hasAnswer()}.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param consumer Callback called for every row.
+	 */
+	public void forEachQuestionAndAnswerOfSurvey(long surveyId, Consumer<SurveyAnswerRow> consumer) {
+		timedFetch("forEachQuestionAndAnswerOfSurvey", callbackTime -> jdbcTemplate.query(
+				"SELECT a.user_uuid, q.question_id, q.question_text, a.answer_id, a.answer_rating "
+				+ "FROM QUESTION q LEFT JOIN ANSWER a ON a.question_id = q.question_id "
+				+ "WHERE q.survey_id = ? ORDER BY q.question_id, a.answer_id",
+				toSurveyAnswerRows(callbackTime.excluded(consumer)), surveyId));
+	}
+
+	private static RowCallbackHandler toSurveyAnswerRows(Consumer<SurveyAnswerRow> consumer) {
+		return resultSet -> consumer.accept(toSurveyAnswerRow(resultSet));
+	}
+
+	private static SurveyAnswerRow toSurveyAnswerRow(ResultSet resultSet) throws SQLException {
+		byte[] userUuid = resultSet.getBytes("user_uuid");
+		return new SurveyAnswerRow(
+				mostSignificantBits(userUuid),
+				leastSignificantBits(userUuid),
+				resultSet.getLong("question_id"),
+				resultSet.getString("question_text"),
+				resultSet.getLong("answer_id"),
+				resultSet.getObject("answer_rating", Integer.class));
+	}
+
+	/**
+	 * Reads the most significant bits of a UUID column read with
+	 * {@link ResultSet#getBytes(String)}, its 16 bytes in big-endian order.
+	 *
+	 * @param uuid The bytes of the UUID, may be null.
+	 * @return The most significant bits of the UUID, 0 if it is null.
+	 */
+	public static long mostSignificantBits(byte[] uuid) {
+		return uuid == null ? 0 : readLong(uuid, 0);
+	}
+
+	/**
+	 * Reads the least significant bits of a UUID column read with
+	 * {@link ResultSet#getBytes(String)}, its 16 bytes in big-endian order.
+	 *
+	 * @param uuid The bytes of the UUID, may be null.
+	 * @return The least significant bits of the UUID, 0 if it is null.
+	 */
+	public static long leastSignificantBits(byte[] uuid) {
+		return uuid == null ? 0 : readLong(uuid, 8);
+	}
+
+	private static long readLong(byte[] bytes, int offset) {
+		long value = 0;
+		for (int i = offset; i < offset + 8; i++) {
+			value = (value << 8) | (bytes[i] & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Reads the answers to the questions of a survey, ordered by question then by
+	 * answer ID. The columns of the rows are question_id, user_uuid and
+	 * answer_rating.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param handler  Callback called for every row.
+	 */
+	public void forEachRatingOfSurveyByQuestion(long surveyId, RowCallbackHandler handler) {
+		timedFetch("forEachRatingOfSurveyByQuestion", callbackTime -> jdbcTemplate.query(
+				"SELECT q.question_id, a.user_uuid, a.answer_rating "
+				+ "FROM QUESTION q JOIN ANSWER a ON a.question_id = q.question_id "
+				+ "WHERE q.survey_id = ? ORDER BY q.question_id, a.answer_id", callbackTime.excluded(handler),
+				surveyId));
+	}
+
+	/**
+	 * Reads the answers to the questions of a survey, ordered by user, then by
+	 * question and answer ID. The columns of the rows are question_id, user_uuid
+	 * and answer_rating.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param handler  Callback called for every row.
+	 */
+	public void forEachRatingOfSurveyByUser(long surveyId, RowCallbackHandler handler) {
+		timedFetch("forEachRatingOfSurveyByUser", callbackTime -> jdbcTemplate.query(
+				"SELECT q.question_id, a.user_uuid, a.answer_rating "
+				+ "FROM QUESTION q JOIN ANSWER a ON a.question_id = q.question_id "
+				+ "WHERE q.survey_id = ? ORDER BY a.user_uuid, q.question_id, a.answer_id",
+				callbackTime.excluded(handler), surveyId));
+	}
+
+	/**
+	 * Runs a query and records its time under the metric of the repositories,
+	 * without the time spent in the callbacks wrapped by
+	 * {@link CallbackTime#excluded}.
+	 */
+	private void timedFetch(String method, Consumer<CallbackTime> query) {
+		CallbackTime callbackTime = new CallbackTime();
+		long start = System.nanoTime();
+		String state = "SUCCESS";
+		String exception = "none";
+		try {
+			query.accept(callbackTime);
+		} catch (RuntimeException e) {
+			state = "ERROR";
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			Timer.builder(INVOCATIONS_METRIC)
+					.tag("repository", AnswerJdbcRepository.class.getSimpleName())
+					.tag("method", method)
+					.tag("state", state)
+					.tag("exception", exception)
+					.register(meterRegistry)
+					.record(System.nanoTime() - start - callbackTime.nanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Time spent in the callbacks of a query, by the thread running it.
+	 */
+	private static final class CallbackTime {
+		private long nanos;
+
+		RowCallbackHandler excluded(RowCallbackHandler handler) {
+			return resultSet -> {
+				long start = System.nanoTime();
+				try {
+					handler.processRow(resultSet);
+				} finally {
+					nanos += System.nanoTime() - start;
+				}
+			};
+		}
+
+		<T> Consumer<T> excluded(Consumer<T> consumer) {
+			return value -> {
+				long start = System.nanoTime();
+				try {
+					consumer.accept(value);
+				} finally {
+					nanos += System.nanoTime() - start;
+				}
+			};
+		}
+	}
+
+}
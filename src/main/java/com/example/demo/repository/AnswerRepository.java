@@ -1,21 +1,68 @@
 package com.example.demo.repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.model.Answer;
+import com.example.demo.model.RatingCount;
 
 import jakarta.transaction.Transactional;
 
 /**
  * Repository interface for managing Answer entities.
+ * <p>
+ * The question of an answer is lazy: the lists of answers only need its ID,
+ * the methods that need the question load it in the same query, with an entity
+ * graph or a fetch join.
  */
 @Repository
 public interface AnswerRepository extends CrudRepository<Answer, Long> {
 
 	Iterable<Answer> findByQuestionId(Long questionId);
 
+	/**
+	 * Finds an answer with its question, in one query.
+	 */
+	@EntityGraph(attributePaths = "question")
+	Optional<Answer> findWithQuestionById(Long id);
+
+	List<Answer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	List<Answer> findByUserUuid(UUID userUuid);
+
+	List<Answer> findByUserUuidAndIdGreaterThanOrderByIdAsc(UUID userUuid, Long id, Limit limit);
+
+	List<Answer> findByUserUuidAndQuestionSurveyIdOrderByQuestionIdAsc(UUID userUuid, Long surveyId);
+
+	/**
+	 * Finds the answers to the questions of a survey, with their question and
+	 * survey, in one query. The answers are ordered by question, then by ID.
+	 */
+	@Query("SELECT a FROM Answer a JOIN FETCH a.question q JOIN FETCH q.survey s "
+			+ "WHERE s.id = :surveyId ORDER BY q.id, a.id")
+	List<Answer> findBySurveyIdWithQuestion(@Param("surveyId") Long surveyId);
+
+	boolean existsByUserUuidAndQuestionId(UUID userUuid, Long questionId);
+
 	@Transactional
 	void deleteByQuestionId(Long questionId);
 
+	/**
+	 * Counts the rated answers of every question, grouped by rating.
+	 */
+	@Query("SELECT q.survey.id AS surveyId, q.id AS questionId, q.text AS questionText, a.rating AS rating, "
+			+ "COUNT(a.id) AS total "
+			+ "FROM Answer a JOIN a.question q "
+			+ "WHERE a.rating IS NOT NULL "
+			+ "GROUP BY q.survey.id, q.id, q.text, a.rating")
+	List<RatingCount> countRatings();
+
 }
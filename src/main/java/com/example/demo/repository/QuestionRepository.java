@@ -1,6 +1,10 @@
 package com.example.demo.repository;
 
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.model.Question;
@@ -15,6 +19,12 @@ public interface QuestionRepository extends CrudRepository<Question, Long> {
 
 	Iterable<Question> findBySurveyId(Long surveyId);
 
+	/**
+	 * Reads the ID of the survey of a question, without loading the question.
+	 */
+	@Query("SELECT q.survey.id FROM Question q WHERE q.id = :id")
+	Optional<Long> findSurveyIdById(@Param("id") Long id);
+
 	@Transactional
 	void deleteBySurveyId(Long surveyId);
 
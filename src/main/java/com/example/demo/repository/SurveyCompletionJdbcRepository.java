@@ -0,0 +1,48 @@
+package com.example.demo.repository;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository inserting the completions of the surveys with plain JDBC.
+ * 
+ * A duplicate completion is detected by the unique (survey, user) constraint
+ * and reported as a result, not as an exception: the insert does not go
+ * through a transactional Spring Data repository, whose exception would mark
+ * the transaction of the caller as rollback-only. H2 only rolls back the failed
+ * statement, so the transaction of the caller goes on.
+ */
+@Repository
+public class SurveyCompletionJdbcRepository {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public SurveyCompletionJdbcRepository(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Inserts the completion of a survey by a user, in the transaction of the
+	 * caller. If another transaction inserted it and did not commit yet, waits
+	 * for it to end.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param userUuid The UUID of the user.
+	 * @return true if the completion was inserted, false if it already existed.
+	 */
+	public boolean insertIfAbsent(long surveyId, UUID userUuid) {
+		try {
+			jdbcTemplate.update("INSERT INTO SURVEY_COMPLETION(survey_id, user_uuid) VALUES (?, ?)", surveyId,
+					userUuid);
+			return true;
+		} catch (DuplicateKeyException e) {
+			return false;
+		}
+	}
+
+}
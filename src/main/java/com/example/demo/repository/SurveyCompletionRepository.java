@@ -0,0 +1,65 @@
+package com.example.demo.repository;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.SurveyCompletion;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Repository interface for managing SurveyCompletion entities.
+ */
+@Repository
+public interface SurveyCompletionRepository extends CrudRepository<SurveyCompletion, Long> {
+
+	boolean existsBySurveyIdAndUserUuid(Long surveyId, UUID userUuid);
+
+	@Query("SELECT c.survey.id FROM SurveyCompletion c WHERE c.userUuid = :userUuid")
+	Set<Long> findSurveyIdsByUserUuid(@Param("userUuid") UUID userUuid);
+
+	/**
+	 * Deletes the completion of a survey by a user if the user has no answer left
+	 * to the questions of the survey. The pending deletions of answers are
+	 * flushed first.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM SurveyCompletion c WHERE c.survey.id = :surveyId AND c.userUuid = :userUuid "
+			+ "AND NOT EXISTS (SELECT a.id FROM Answer a "
+			+ "WHERE a.userUuid = :userUuid AND a.question.survey.id = :surveyId)")
+	int deleteWithoutAnswersBySurveyIdAndUserUuid(@Param("surveyId") Long surveyId,
+			@Param("userUuid") UUID userUuid);
+
+	/**
+	 * Deletes the completions of a survey by the users who have no answer left to
+	 * the questions of the survey. The pending deletions of answers are flushed
+	 * first.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM SurveyCompletion c WHERE c.survey.id = :surveyId "
+			+ "AND NOT EXISTS (SELECT a.id FROM Answer a "
+			+ "WHERE a.userUuid = c.userUuid AND a.question.survey.id = :surveyId)")
+	int deleteWithoutAnswersBySurveyId(@Param("surveyId") Long surveyId);
+
+	/**
+	 * Deletes the completions of the survey of a question by the users who have
+	 * no answer left to the questions of the survey. The pending deletions of
+	 * answers are flushed first.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM SurveyCompletion c "
+			+ "WHERE c.survey.id = (SELECT q.survey.id FROM Question q WHERE q.id = :questionId) "
+			+ "AND NOT EXISTS (SELECT a.id FROM Answer a "
+			+ "WHERE a.userUuid = c.userUuid AND a.question.survey.id = c.survey.id)")
+	int deleteWithoutAnswersBySurveyOfQuestionId(@Param("questionId") Long questionId);
+
+}
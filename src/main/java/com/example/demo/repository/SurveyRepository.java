@@ -1,12 +1,44 @@
 package com.example.demo.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import com.example.demo.model.Survey;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
 
 /**
  * Repository interface for managing Survey entities.
+ * <p>
+ * The pages of surveys are read as entities, or as a projection such as
+ * {@link com.example.demo.model.SurveyTitle} to select only some of the
+ * columns.
  */
 @Service
 public interface SurveyRepository extends CrudRepository<Survey, Long> {
+
+	<T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
+
+	// StartingWith escapes the wildcards of the prefix, the LIKE uses IDX_SURVEY_TITLE
+	<T> List<T> findByTitleStartingWithAndIdGreaterThanOrderByIdAsc(String titlePrefix, Long id, Limit limit,
+			Class<T> type);
+
+	/**
+	 * Reads whether a survey is closed, from the database even if the survey is
+	 * already in the persistence context.
+	 */
+	@Query(value = "SELECT survey_closed FROM SURVEY WHERE survey_id = :id", nativeQuery = true)
+	Optional<Boolean> findClosedById(@Param("id") Long id);
+
+	/**
+	 * Reads whether a survey is closed and locks its row until the end of the
+	 * transaction, like a PESSIMISTIC_WRITE lock. The flag is read from the
+	 * database even if the survey is already in the persistence context.
+	 */
+	@Query(value = "SELECT survey_closed FROM SURVEY WHERE survey_id = :id FOR UPDATE", nativeQuery = true)
+	Optional<Boolean> findClosedForUpdateById(@Param("id") Long id);
+
 }
@@ -0,0 +1,37 @@
+package com.example.demo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.SurveyResultsSnapshot;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Repository interface for managing SurveyResultsSnapshot entities.
+ */
+@Repository
+public interface SurveyResultsSnapshotRepository extends CrudRepository<SurveyResultsSnapshot, Long> {
+
+	/**
+	 * Reads the compressed results of a survey in a format, without loading the
+	 * entity.
+	 */
+	@Query("SELECT s.gzip FROM SurveyResultsSnapshot s WHERE s.survey.id = :surveyId AND s.format = :format")
+	Optional<byte[]> findGzipBySurveyIdAndFormat(@Param("surveyId") Long surveyId,
+			@Param("format") SurveyResultsSnapshot.Format format);
+
+	/**
+	 * Deletes the snapshots of a survey in one statement, without reading them.
+	 */
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM SurveyResultsSnapshot s WHERE s.survey.id = :surveyId")
+	void deleteBySurveyId(@Param("surveyId") Long surveyId);
+
+}
@@ -1,13 +1,36 @@
 
 package com.example.demo.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 import com.example.demo.model.Answer;
+import com.example.demo.model.AnswerSummaryDTO;
+import com.example.demo.model.Question;
+import com.example.demo.model.Survey;
+import com.example.demo.model.SurveyAnswerRow;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.repository.AnswerJdbcRepository;
 import com.example.demo.repository.AnswerRepository;
+import com.example.demo.repository.QuestionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.transaction.Transactional;
 
 /**
  * Service class for managing Answer entities.
@@ -15,9 +38,24 @@ import com.example.demo.repository.AnswerRepository;
 @Service
 public class AnswerService {
 	private final AnswerRepository answerRepository;
+	private final AnswerJdbcRepository answerJdbcRepository;
+	private final QuestionRepository questionRepository;
+	private final RatingCounters ratingCounters;
+	private final SurveyCompletionService surveyCompletionService;
+	private final SurveyResultsSnapshotService surveyResultsSnapshotService;
+	private final ObjectMapper objectMapper;
 
-	public AnswerService(AnswerRepository answerRepository) {
+	public AnswerService(AnswerRepository answerRepository, AnswerJdbcRepository answerJdbcRepository,
+			QuestionRepository questionRepository, RatingCounters ratingCounters,
+			SurveyCompletionService surveyCompletionService, SurveyResultsSnapshotService surveyResultsSnapshotService,
+			ObjectMapper objectMapper) {
 		this.answerRepository = answerRepository;
+		this.answerJdbcRepository = answerJdbcRepository;
+		this.questionRepository = questionRepository;
+		this.ratingCounters = ratingCounters;
+		this.surveyCompletionService = surveyCompletionService;
+		this.surveyResultsSnapshotService = surveyResultsSnapshotService;
+		this.objectMapper = objectMapper;
 	}
 
 	/**
@@ -29,6 +67,276 @@ public class AnswerService {
 		return answerRepository.findAll();
 	}
 
+	/**
+	 * Retrieves a page of answers, ordered by ID. Their questions are not read.
+	 *
+	 * @param after The ID after which the page starts (exclusive).
+	 * @param limit The maximum number of answers of the page.
+	 * @return List of the answers of the page.
+	 */
+	public List<AnswerSummaryDTO> getAnswerSummariesAfter(long after, int limit) {
+		return toSummaries(answerRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
+	}
+
+	/**
+	 * Writes all the answers with an ID greater than the given one as
+	 * newline-delimited JSON, one answer per line, ordered by ID. The answers are
+	 * written as they are read from the database cursor.
+	 *
+	 * @param after        The ID after which the answers are written (exclusive).
+	 * @param outputStream The stream the answers are written to.
+	 * @throws IOException If the answers cannot be written.
+	 */
+	public void writeAnswersAsNdjson(long after, OutputStream outputStream) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.setRootValueSeparator(null);
+			answerJdbcRepository.forEachAnswerAfter(after, resultSet -> {
+				try {
+					generator.writeStartObject();
+					generator.writeNumberField("id", resultSet.getLong("answer_id"));
+					int rating = resultSet.getInt("answer_rating");
+					if (resultSet.wasNull()) {
+						generator.writeNullField("rating");
+					} else {
+						generator.writeNumberField("rating", rating);
+					}
+					generator.writeStringField("userUuid", resultSet.getObject("user_uuid", UUID.class).toString());
+					generator.writeNumberField("questionId", resultSet.getLong("question_id"));
+					generator.writeEndObject();
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads all the answers of a survey as flat rows, ordered by user, then by
+	 * question. No entity is loaded.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param consumer Callback called for every row.
+	 * @throws IllegalArgumentException If the survey ID is null.
+	 */
+	public void forEachAnswerOfSurvey(Long surveyId, Consumer<SurveyAnswerRow> consumer)
+			throws IllegalArgumentException {
+		if (surveyId == null) {
+			throw new IllegalArgumentException("Survey id cannot be null.");
+		}
+		answerJdbcRepository.forEachAnswerOfSurvey(surveyId, consumer);
+	}
+
+	/**
+	 * Writes the results of a survey by user as a JSON array, with the same
+	 * content as {@link ResponseService#getSurveyResultsByUser(Long)}. Each user
+	 * is written as soon as its rows are read from the database cursor, so the
+	 * memory used does not depend on the number of users.
+	 *
+	 * @param surveyId     The ID of the survey.
+	 * @param outputStream The stream the results are written to.
+	 * @throws IOException If the results cannot be written.
+	 */
+	public void writeSurveyResultsByUser(Long surveyId, OutputStream outputStream) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			UUID[] currentUserUuid = { null };
+
+			generator.writeStartArray();
+			forEachAnswerOfSurvey(surveyId, row -> {
+				try {
+					if (!row.isFromUser(currentUserUuid[0])) {
+						if (currentUserUuid[0] != null) {
+							generator.writeEndArray();
+							generator.writeEndObject();
+						}
+						currentUserUuid[0] = row.userUuid();
+						generator.writeStartObject();
+						generator.writeStringField("userUuid", currentUserUuid[0].toString());
+						generator.writeArrayFieldStart("userAnswers");
+					}
+					generator.writeStartObject();
+					generator.writeNumberField("idQuestion", row.questionId());
+					generator.writeNumberField("idAnswer", row.answerId());
+					generator.writeStringField("textQuestion", row.questionText());
+					generator.writeFieldName("answerRating");
+					writeRating(generator, row.rating());
+					generator.writeEndObject();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			if (currentUserUuid[0] != null) {
+				generator.writeEndArray();
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the full results of a survey as a JSON object, with the same content
+	 * as {@link ResponseService#getSurveyResultsFullSummary(Long)}. Each question
+	 * is written as soon as its rows are read from the database cursor, so the
+	 * memory used does not depend on the number of answers. Unlike the
+	 * non-streamed results, a survey without answers is written with its
+	 * questions and empty lists of answers.
+	 *
+	 * @param survey       The survey.
+	 * @param outputStream The stream the results are written to.
+	 * @throws IOException If the results cannot be written.
+	 */
+	public void writeSurveyResultsFullSummary(Survey survey, OutputStream outputStream) throws IOException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			long[] currentQuestionId = { 0 };
+
+			generator.writeStartObject();
+			generator.writeNumberField("id", survey.getId());
+			generator.writeStringField("title", survey.getTitle());
+			generator.writeStringField("desc", survey.getDesc());
+			generator.writeArrayFieldStart("questions");
+			answerJdbcRepository.forEachQuestionAndAnswerOfSurvey(survey.getId(), row -> {
+				try {
+					if (row.questionId() != currentQuestionId[0]) {
+						if (currentQuestionId[0] != 0) {
+							generator.writeEndArray();
+							generator.writeEndObject();
+						}
+						currentQuestionId[0] = row.questionId();
+						generator.writeStartObject();
+						generator.writeNumberField("id", row.questionId());
+						generator.writeStringField("text", row.questionText());
+						generator.writeArrayFieldStart("answers");
+					}
+					if (row.hasAnswer()) {
+						generator.writeStartObject();
+						generator.writeNumberField("id", row.answerId());
+						generator.writeFieldName("rating");
+						writeRating(generator, row.rating());
+						generator.writeStringField("userUuid", row.userUuid().toString());
+						generator.writeEndObject();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			if (currentQuestionId[0] != 0) {
+				generator.writeEndArray();
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the results of a survey by user as a compact JSON object: the
+	 * questions are written once, ordered by ID, then every user has an array of
+	 * ratings indexed by the position of the questions.
+	 * 
+	 * <pre>
+	 * {"surveyId": 2,
+	 *  "questions": [{"id": 4, "text": "..."}, {"id": 5, "text": "..."}],
+	 *  "users": [{"userUuid": "...", "ratings": [2, null]}]}
+	 * </pre>
+	 * 
+	 * A question the user did not answer, or answered without rating, has a null
+	 * rating; if the user answered a question several times, the last answer is
+	 * kept. Each user is written as soon as its rows are read from the database
+	 * cursor, so the memory used does not depend on the number of users.
+	 *
+	 * @param surveyId     The ID of the survey.
+	 * @param questions    The questions of the survey.
+	 * @param outputStream The stream the results are written to.
+	 * @throws IOException If the results cannot be written.
+	 */
+	public void writeSurveyResultsCompact(Long surveyId, Iterable<Question> questions, OutputStream outputStream)
+			throws IOException {
+		List<Question> orderedQuestions = new ArrayList<Question>();
+		questions.forEach(orderedQuestions::add);
+		orderedQuestions.sort(Comparator.comparing(Question::getId));
+
+		Map<Long, Integer> positionByQuestionId = new HashMap<Long, Integer>();
+		for (Question question : orderedQuestions) {
+			positionByQuestionId.put(question.getId(), positionByQuestionId.size());
+		}
+
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.writeStartObject();
+			generator.writeNumberField("surveyId", surveyId);
+			generator.writeArrayFieldStart("questions");
+			for (Question question : orderedQuestions) {
+				generator.writeStartObject();
+				generator.writeNumberField("id", question.getId());
+				generator.writeStringField("text", question.getText());
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+
+			// The ratings of the current user, written when the rows of the next user
+			// start
+			Integer[] ratings = new Integer[orderedQuestions.size()];
+			long[] currentUserUuid = new long[2];
+			boolean[] hasCurrentUser = { false };
+
+			generator.writeArrayFieldStart("users");
+			answerJdbcRepository.forEachRatingOfSurveyByUser(surveyId, resultSet -> {
+				byte[] userUuid = resultSet.getBytes("user_uuid");
+				long userUuidMsb = AnswerJdbcRepository.mostSignificantBits(userUuid);
+				long userUuidLsb = AnswerJdbcRepository.leastSignificantBits(userUuid);
+				try {
+					if (!hasCurrentUser[0] || userUuidMsb != currentUserUuid[0] || userUuidLsb != currentUserUuid[1]) {
+						if (hasCurrentUser[0]) {
+							writeCompactUser(generator, currentUserUuid, ratings);
+						}
+						hasCurrentUser[0] = true;
+						currentUserUuid[0] = userUuidMsb;
+						currentUserUuid[1] = userUuidLsb;
+						Arrays.fill(ratings, null);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				Integer position = positionByQuestionId.get(resultSet.getLong("question_id"));
+				if (position != null) {
+					ratings[position] = resultSet.getObject("answer_rating", Integer.class);
+				}
+			});
+			if (hasCurrentUser[0]) {
+				writeCompactUser(generator, currentUserUuid, ratings);
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static void writeCompactUser(JsonGenerator generator, long[] userUuid, Integer[] ratings)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("userUuid", new UUID(userUuid[0], userUuid[1]).toString());
+		generator.writeArrayFieldStart("ratings");
+		for (Integer rating : ratings) {
+			writeRating(generator, rating);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeRating(JsonGenerator generator, Integer rating) throws IOException {
+		if (rating == null) {
+			generator.writeNull();
+		} else {
+			generator.writeNumber(rating);
+		}
+	}
+
 	/**
 	 * Retrieves an answer by its ID.
 	 *
@@ -39,62 +347,227 @@ public class AnswerService {
 		if (id == null) {
 			return Optional.empty();
 		}
-		return answerRepository.findById(id);
+		return answerRepository.findWithQuestionById(id);
 	}
 
 	/**
-	 * Saves an answer.
+	 * Saves an answer. If an existing answer moves to another survey or user, the
+	 * completion of its previous survey by its previous user is removed when it
+	 * was their last answer, and the new one is recorded, in the same
+	 * transaction. The snapshots of the results of the previous and of the new
+	 * survey of an updated answer are discarded in the same transaction too.
 	 *
 	 * @param answer The answer to be saved.
 	 * @return The saved answer.
 	 * @throws IllegalArgumentException If the answer is null.
 	 */
+	@Transactional
 	public Answer saveAnswer(Answer answer) {
 		if (answer == null) {
 			throw new IllegalArgumentException("answer cannot be null.");
 		}
-		return answerRepository.save(answer);
+
+		// We keep the previous rating and question (if any) before the save modifies
+		// the entity
+		Answer previousAnswer = answer.getId() == null ? null
+				: answerRepository.findWithQuestionById(answer.getId()).orElse(null);
+		Integer previousRating = previousAnswer == null ? null : previousAnswer.getRating();
+		RatingCounters.QuestionKey previousQuestion = previousAnswer == null || previousAnswer.getQuestion() == null
+				? null
+				: new RatingCounters.QuestionKey(previousAnswer.getQuestion());
+		Long previousSurveyId = surveyIdOf(previousAnswer);
+		UUID previousUserUuid = previousAnswer == null ? null : previousAnswer.getUserUuid();
+
+		Answer savedAnswer = answerRepository.save(answer);
+
+		if (previousAnswer == null) {
+			ratingCounters.answerAdded(savedAnswer);
+		} else {
+			ratingCounters.answerUpdated(previousQuestion, previousRating, savedAnswer);
+
+			Long surveyId = surveyIdOf(savedAnswer);
+			surveyResultsSnapshotService.surveysEdited(previousSurveyId, surveyId);
+			if (!Objects.equals(previousSurveyId, surveyId)
+					|| !Objects.equals(previousUserUuid, savedAnswer.getUserUuid())) {
+				surveyCompletionService.releaseCompletion(previousSurveyId, previousUserUuid);
+				if (surveyId != null && savedAnswer.getUserUuid() != null) {
+					surveyCompletionService.markCompleted(savedAnswer.getQuestion().getSurvey(),
+							savedAnswer.getUserUuid());
+				}
+			}
+		}
+		return savedAnswer;
 	}
 
 	/**
-	 * Deletes an answer by its ID.
+	 * Saves several answers at once. The inserts are sent to the database in JDBC
+	 * batches.
+	 *
+	 * @param answers The answers to be saved.
+	 * @return The saved answers.
+	 * @throws IllegalArgumentException If the list of answers is null.
+	 */
+	public Iterable<Answer> saveAnswers(List<Answer> answers) {
+		if (answers == null) {
+			throw new IllegalArgumentException("answers cannot be null.");
+		}
+		Iterable<Answer> savedAnswers = answerRepository.saveAll(answers);
+		for (Answer answer : savedAnswers) {
+			ratingCounters.answerAdded(answer);
+		}
+		return savedAnswers;
+	}
+
+	/**
+	 * Deletes an answer by its ID. If it was the last answer of its user to its
+	 * survey, the completion of the survey by the user is removed in the same
+	 * transaction, as are the snapshots of the results of the survey.
 	 *
 	 * @param id The ID of the answer to be deleted.
 	 * @throws IllegalArgumentException If the ID is null.
 	 */
+	@Transactional
 	public void deleteAnswer(Long id) throws IllegalArgumentException {
 		if (id == null) {
 			throw new IllegalArgumentException("id cannot be null.");
 		}
+		Answer answer = answerRepository.findWithQuestionById(id).orElse(null);
 		answerRepository.deleteById(id);
+		if (answer != null) {
+			ratingCounters.answerDeleted(answer);
+			surveyCompletionService.releaseCompletion(surveyIdOf(answer), answer.getUserUuid());
+			surveyResultsSnapshotService.surveysEdited(surveyIdOf(answer));
+		}
 	}
 
 	/**
-	 * Finds answers by question ID.
+	 * Finds answers by question ID. The question is not read again.
 	 *
 	 * @param questionId The ID of the question.
-	 * @return Iterable collection of answers for the specified question.
+	 * @return List of the answers for the specified question.
 	 * @throws IllegalArgumentException If the question ID is null.
 	 */
-	public Iterable<Answer> findByQuestionId(Long questionId) throws IllegalArgumentException {
+	public List<AnswerSummaryDTO> findAnswerSummariesByQuestionId(Long questionId) throws IllegalArgumentException {
 		if (questionId == null) {
 			throw new IllegalArgumentException("Question id cannot be null.");
 		}
-		;
-		return answerRepository.findByQuestionId(questionId);
+		return toSummaries(answerRepository.findByQuestionId(questionId));
+	}
+
+	/**
+	 * Finds the answers to the questions of a survey, ordered by question then by
+	 * ID, in a single query loading their questions too.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return List of the answers of the survey.
+	 * @throws IllegalArgumentException If the survey ID is null.
+	 */
+	public List<Answer> findBySurveyId(Long surveyId) throws IllegalArgumentException {
+		if (surveyId == null) {
+			throw new IllegalArgumentException("Survey id cannot be null.");
+		}
+		return answerRepository.findBySurveyIdWithQuestion(surveyId);
+	}
+
+	/**
+	 * Finds all the answers of a user.
+	 *
+	 * @param userUuid The UUID of the user.
+	 * @return List of the answers of the user.
+	 * @throws IllegalArgumentException If the user UUID is null.
+	 */
+	public List<Answer> findByUserUuid(UUID userUuid) throws IllegalArgumentException {
+		if (userUuid == null) {
+			throw new IllegalArgumentException("User uuid cannot be null.");
+		}
+		return answerRepository.findByUserUuid(userUuid);
+	}
+
+	/**
+	 * Retrieves a page of the answers of a user, ordered by ID. Their questions
+	 * are not read.
+	 *
+	 * @param userUuid The UUID of the user.
+	 * @param after    The ID after which the page starts (exclusive).
+	 * @param limit    The maximum number of answers of the page.
+	 * @return List of the answers of the page.
+	 * @throws IllegalArgumentException If the user UUID is null.
+	 */
+	public List<AnswerSummaryDTO> findAnswerSummariesByUserUuidAfter(UUID userUuid, long after, int limit)
+			throws IllegalArgumentException {
+		if (userUuid == null) {
+			throw new IllegalArgumentException("User uuid cannot be null.");
+		}
+		return toSummaries(
+				answerRepository.findByUserUuidAndIdGreaterThanOrderByIdAsc(userUuid, after, Limit.of(limit)));
 	}
 
 	/**
-	 * Deletes answers by question ID.
+	 * Finds the answers of a user to the questions of a survey.
+	 *
+	 * @param userUuid The UUID of the user.
+	 * @param surveyId The ID of the survey.
+	 * @return List of the answers of the user to the survey, ordered by question.
+	 * @throws IllegalArgumentException If the user UUID or the survey ID is null.
+	 */
+	public List<Answer> findByUserUuidAndSurveyId(UUID userUuid, Long surveyId) throws IllegalArgumentException {
+		if (userUuid == null || surveyId == null) {
+			throw new IllegalArgumentException("User uuid and survey id cannot be null.");
+		}
+		return answerRepository.findByUserUuidAndQuestionSurveyIdOrderByQuestionIdAsc(userUuid, surveyId);
+	}
+
+	/**
+	 * Checks if a user answered a question.
+	 *
+	 * @param userUuid   The UUID of the user.
+	 * @param questionId The ID of the question.
+	 * @return True if the user answered the question, false otherwise.
+	 */
+	public boolean existsByUserUuidAndQuestionId(UUID userUuid, Long questionId) {
+		if (userUuid == null || questionId == null) {
+			return false;
+		}
+		return answerRepository.existsByUserUuidAndQuestionId(userUuid, questionId);
+	}
+
+	/**
+	 * Deletes answers by question ID. The completions of the survey by the users
+	 * left without answers to it and the snapshots of the results of the survey
+	 * are removed in the same transaction.
 	 *
 	 * @param questionId The ID of the question.
 	 * @throws IllegalArgumentException If the question ID is null.
 	 */
+	@Transactional
 	public void deleteByQuestionId(Long questionId) {
 		if (questionId == null) {
 			throw new IllegalArgumentException("Question id cannot be null.");
 		}
 		answerRepository.deleteByQuestionId(questionId);
+		ratingCounters.questionCleared(questionId);
+		surveyCompletionService.releaseCompletionsWithoutAnswersOfQuestion(questionId);
+		surveyResultsSnapshotService.surveysEdited(questionRepository.findSurveyIdById(questionId).orElse(null));
+	}
+
+	private static Long surveyIdOf(Answer answer) {
+		if (answer == null || answer.getQuestion() == null || answer.getQuestion().getSurvey() == null) {
+			return null;
+		}
+		return answer.getQuestion().getSurvey().getId();
+	}
+
+	/**
+	 * Transforms answers into DTOs referring to their question by ID, which does
+	 * not load the lazy question.
+	 */
+	private static List<AnswerSummaryDTO> toSummaries(Iterable<Answer> answers) {
+		List<AnswerSummaryDTO> answerSummaryDTOs = new ArrayList<AnswerSummaryDTO>();
+		for (Answer answer : answers) {
+			answerSummaryDTOs.add(new AnswerSummaryDTO(answer.getId(), answer.getRating(), answer.getUserUuid(),
+					answer.getQuestion().getId()));
+		}
+		return answerSummaryDTOs;
 	}
 
 }
@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Service class exposing the usage counters of the application caches.
+ */
+@Service
+public class CacheStatsService {
+
+	private final CacheManager cacheManager;
+
+	public CacheStatsService(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * Retrieves the usage counters of every cache, ordered by cache name.
+	 *
+	 * @return List of CacheStatsDTO, one per cache.
+	 */
+	public List<CacheStatsDTO> getCacheStats() {
+		List<CacheStatsDTO> cacheStatsDTOs = new ArrayList<CacheStatsDTO>();
+
+		for (String cacheName : cacheManager.getCacheNames().stream().sorted().toList()) {
+			Cache cache = cacheManager.getCache(cacheName);
+			if (!(cache instanceof CaffeineCache caffeineCache)) {
+				continue;
+			}
+			com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+			CacheStats stats = nativeCache.stats();
+			cacheStatsDTOs.add(new CacheStatsDTO()
+					.name(cacheName)
+					.size(nativeCache.estimatedSize())
+					.hitCount(stats.hitCount())
+					.missCount(stats.missCount())
+					.hitRate(stats.hitRate())
+					.evictionCount(stats.evictionCount()));
+		}
+
+		return cacheStatsDTOs;
+	}
+
+}
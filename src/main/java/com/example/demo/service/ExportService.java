@@ -0,0 +1,256 @@
+package com.example.demo.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.Answer;
+import com.example.demo.repository.AnswerJdbcRepository;
+
+/**
+ * Service class exporting the answers of a survey in compact formats for
+ * analysis. The answers are read from a single JDBC cursor, no entity is
+ * loaded.
+ */
+@Service
+public class ExportService {
+
+	/**
+	 * First bytes of a columnar export.
+	 */
+	public static final byte[] COLUMNAR_MAGIC = { 'S', 'V', 'R', 'C' };
+	public static final int COLUMNAR_VERSION = 2;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final AnswerJdbcRepository answerJdbcRepository;
+
+	public ExportService(AnswerJdbcRepository answerJdbcRepository) {
+		this.answerJdbcRepository = answerJdbcRepository;
+	}
+
+	/**
+	 * Writes the answers of a survey as CSV, ordered by question then by answer
+	 * ID. The columns are question_id, user_uuid_msb and user_uuid_lsb (the two
+	 * halves of the UUID of the user as signed longs) and rating (empty if the
+	 * answer has no rating).
+	 *
+	 * @param surveyId     The ID of the survey.
+	 * @param outputStream The stream the answers are written to.
+	 * @throws IOException If the answers cannot be written.
+	 */
+	public void writeCsv(long surveyId, OutputStream outputStream) throws IOException {
+		BufferedOutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+		StringBuilder line = new StringBuilder(64);
+
+		out.write("question_id,user_uuid_msb,user_uuid_lsb,rating\n".getBytes(StandardCharsets.US_ASCII));
+		forEach(handler -> answerJdbcRepository.forEachRatingOfSurveyByQuestion(surveyId, handler),
+				resultSet -> {
+					byte[] userUuid = resultSet.getBytes("user_uuid");
+					int rating = resultSet.getInt("answer_rating");
+					boolean noRating = resultSet.wasNull();
+
+					line.setLength(0);
+					line.append(resultSet.getLong("question_id")).append(',')
+							.append(AnswerJdbcRepository.mostSignificantBits(userUuid)).append(',')
+							.append(AnswerJdbcRepository.leastSignificantBits(userUuid)).append(',');
+					if (!noRating) {
+						line.append(rating);
+					}
+					line.append('\n');
+					try {
+						for (int i = 0; i < line.length(); i++) {
+							out.write(line.charAt(i));
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+		out.flush();
+	}
+
+	/**
+	 * Writes the answers of a survey in a columnar binary format, one block per
+	 * user, ordered by user, then by question and answer ID. Numbers are
+	 * big-endian, varints are unsigned LEB128.
+	 *
+	 * <pre>
+	 * magic        4 bytes "SVRC", then 1 byte version (2)
+	 * survey id    long
+	 * user blocks  for each user:
+	 *   answers    varint, number of answers of the user (at least 1)
+	 *   user       UUID as two longs
+	 *   questions  for each answer: zigzag varint of the difference with the
+	 *              question ID of the previous answer of the user (0 before
+	 *              the first one)
+	 *   ratings    3 bits per answer, most significant bit first, padded with
+	 *              zeros to a whole byte: 0 if no rating, the rating otherwise
+	 * end          varint 0
+	 * users        varint, number of users
+	 * answers      varint, number of answers
+	 * </pre>
+	 *
+	 * The answers are read by a single query and written as they are read: only
+	 * the answers of the current user are buffered, until their number is known.
+	 * The numbers of users and answers are written last, a truncated export has
+	 * no end marker.
+	 *
+	 * @param surveyId     The ID of the survey.
+	 * @param outputStream The stream the answers are written to.
+	 * @throws IOException If the answers cannot be written.
+	 */
+	public void writeColumnar(long surveyId, OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+		out.write(COLUMNAR_MAGIC);
+		out.writeByte(COLUMNAR_VERSION);
+		out.writeLong(surveyId);
+
+		ColumnarBlocks blocks = new ColumnarBlocks(out);
+		forEach(handler -> answerJdbcRepository.forEachRatingOfSurveyByUser(surveyId, handler), blocks);
+		blocks.finish();
+		out.flush();
+	}
+
+	/**
+	 * Runs a query of the repository and unwraps the write errors of its
+	 * callback.
+	 */
+	private static void forEach(Consumer<RowCallbackHandler> query, RowCallbackHandler handler)
+			throws IOException {
+		try {
+			query.accept(handler);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	static void writeVarint(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * User blocks of a columnar export, written from the answers of a survey
+	 * ordered by user. The answers of a user are buffered until the next user.
+	 */
+	static final class ColumnarBlocks implements RowCallbackHandler {
+		private static final byte[] NO_USER_UUID = new byte[16];
+
+		private final DataOutputStream out;
+		private final ByteArrayOutputStream questionBytes = new ByteArrayOutputStream();
+		private final ByteArrayOutputStream ratingBytes = new ByteArrayOutputStream();
+		private final DataOutputStream questions = new DataOutputStream(questionBytes);
+		private final RatingPacker ratingPacker = new RatingPacker(new DataOutputStream(ratingBytes));
+		private byte[] userUuid;
+		private long userAnswerCount;
+		private long userCount;
+		private long answerCount;
+		private long previousQuestionId;
+
+		ColumnarBlocks(DataOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void processRow(ResultSet resultSet) throws SQLException {
+			byte[] rowUserUuid = resultSet.getBytes("user_uuid");
+			long questionId = resultSet.getLong("question_id");
+			int rating = resultSet.getInt("answer_rating");
+			boolean noRating = resultSet.wasNull();
+			try {
+				if (userAnswerCount == 0 || !Arrays.equals(userUuid, rowUserUuid)) {
+					finishUser();
+					userUuid = rowUserUuid;
+				}
+				userAnswerCount++;
+				answerCount++;
+
+				long delta = questionId - previousQuestionId;
+				previousQuestionId = questionId;
+				writeVarint(questions, (delta << 1) ^ (delta >> 63));
+				ratingPacker.add(noRating ? 0 : SurveyService.histogramIndex(rating) + Answer.MIN_VALUE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Writes the block of the last user, the end marker and the numbers of users
+		 * and answers, once all the answers were read.
+		 */
+		void finish() throws IOException {
+			finishUser();
+			writeVarint(out, 0);
+			writeVarint(out, userCount);
+			writeVarint(out, answerCount);
+		}
+
+		private void finishUser() throws IOException {
+			if (userAnswerCount == 0) {
+				return;
+			}
+			ratingPacker.finish();
+			writeVarint(out, userAnswerCount);
+			// The 16 bytes of the UUID are its two halves in big-endian order
+			out.write(userUuid == null ? NO_USER_UUID : userUuid);
+			questionBytes.writeTo(out);
+			ratingBytes.writeTo(out);
+
+			questionBytes.reset();
+			ratingBytes.reset();
+			previousQuestionId = 0;
+			userCount++;
+			userAnswerCount = 0;
+		}
+	}
+
+	/**
+	 * Packs ratings on 3 bits each, 8 ratings in 3 bytes.
+	 */
+	static final class RatingPacker {
+		private final DataOutputStream out;
+		private int bits;
+		private int bitCount;
+
+		RatingPacker(DataOutputStream out) {
+			this.out = out;
+		}
+
+		void add(int value) throws IOException {
+			bits = (bits << 3) | (value & 0x7);
+			bitCount += 3;
+			if (bitCount == 24) {
+				out.writeByte(bits >>> 16);
+				out.writeByte(bits >>> 8);
+				out.writeByte(bits);
+				bits = 0;
+				bitCount = 0;
+			}
+		}
+
+		void finish() throws IOException {
+			int padding = (8 - bitCount % 8) % 8;
+			bits <<= padding;
+			for (int shift = bitCount + padding - 8; shift >= 0; shift -= 8) {
+				out.writeByte(bits >>> shift);
+			}
+			bits = 0;
+			bitCount = 0;
+		}
+	}
+
+}
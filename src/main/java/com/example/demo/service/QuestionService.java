@@ -1,21 +1,51 @@
 package com.example.demo.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import com.example.demo.model.CachedQuestion;
 import com.example.demo.model.Question;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.repository.QuestionRepository;
 
+import jakarta.transaction.Transactional;
+
 /**
  * Service class for managing Question entities.
+ * <p>
+ * The questions of a survey are kept in the {@value #QUESTIONS_BY_SURVEY_CACHE}
+ * cache, keyed by the ID of the survey, as an immutable list of
+ * {@link CachedQuestion}. Like the surveys cache (see SurveyService), its
+ * writes in a transaction are only applied once it commits, and questions read
+ * before a change committed are not served after it.
  */
 @Service
 public class QuestionService {
+
+	public final static String QUESTIONS_BY_SURVEY_CACHE = "questionsBySurvey";
+
 	private final QuestionRepository questionRepository;
+	private final RatingCounters ratingCounters;
+	private final SurveyVersions surveyVersions;
+	private final SurveyCompletionService surveyCompletionService;
+	private final SurveyResultsSnapshotService surveyResultsSnapshotService;
+	private final Cache questionsBySurveyCache;
 
-	public QuestionService(QuestionRepository questionRepository) {
+	public QuestionService(QuestionRepository questionRepository, RatingCounters ratingCounters,
+			SurveyVersions surveyVersions, SurveyCompletionService surveyCompletionService,
+			SurveyResultsSnapshotService surveyResultsSnapshotService, CacheManager cacheManager) {
 		this.questionRepository = questionRepository;
+		this.ratingCounters = ratingCounters;
+		this.surveyVersions = surveyVersions;
+		this.surveyCompletionService = surveyCompletionService;
+		this.surveyResultsSnapshotService = surveyResultsSnapshotService;
+		this.questionsBySurveyCache = new TransactionAwareCacheDecorator(
+				cacheManager.getCache(QUESTIONS_BY_SURVEY_CACHE));
 	}
 
 	/**
@@ -41,37 +71,102 @@ public class QuestionService {
 	}
 
 	/**
-	 * Saves a question.
+	 * Retrieves all the questions with the given IDs in a single query.
+	 *
+	 * @param ids The IDs of the questions.
+	 * @return Iterable collection of the questions found.
+	 * @throws IllegalArgumentException If the collection of IDs is null.
+	 */
+	public Iterable<Question> findAllById(Iterable<Long> ids) {
+		if (ids == null) {
+			throw new IllegalArgumentException("ids cannot be null.");
+		}
+		return questionRepository.findAllById(ids);
+	}
+
+	/**
+	 * Saves a question. The snapshots of the results of its survey, and of its
+	 * previous survey if it moved, are discarded in the same transaction.
 	 *
 	 * @param question The question to be saved.
 	 * @return The saved question.
 	 * @throws IllegalArgumentException If the question is null.
 	 */
+	@Transactional
 	public Question saveQuestion(Question question) {
 		if (question == null) {
 			throw new IllegalArgumentException("question cannot be null.");
 		}
-		return questionRepository.save(question);
+		// An updated question may have moved from another survey
+		boolean anySurveyChanged = question.getId() != null || question.getSurvey() == null;
+		Long previousSurveyId = question.getId() == null ? null
+				: questionRepository.findSurveyIdById(question.getId()).orElse(null);
+		Question savedQuestion = questionRepository.save(question);
+		surveyResultsSnapshotService.surveysEdited(previousSurveyId,
+				question.getSurvey() == null ? null : question.getSurvey().getId());
+		if (anySurveyChanged) {
+			questionsBySurveyCache.clear();
+			surveyVersions.allSurveysChanged();
+		} else {
+			questionsBySurveyCache.evict(question.getSurvey().getId());
+			surveyVersions.surveyChanged(question.getSurvey().getId());
+		}
+		return savedQuestion;
 	}
 
 	/**
-	 * Deletes a question by its ID.
+	 * Saves the questions of a survey. New questions are inserted in batches.
+	 *
+	 * @param surveyId  The ID of the survey of the questions.
+	 * @param questions The questions to save.
+	 * @return The saved questions, in the same order.
+	 * @throws IllegalArgumentException If the collection of questions is null.
+	 */
+	public List<Question> saveQuestionsOfSurvey(Long surveyId, List<Question> questions) {
+		if (questions == null) {
+			throw new IllegalArgumentException("questions cannot be null.");
+		}
+		List<Question> savedQuestions = new ArrayList<Question>(questions.size());
+		questionRepository.saveAll(questions).forEach(savedQuestions::add);
+		if (surveyId == null) {
+			questionsBySurveyCache.clear();
+		} else {
+			questionsBySurveyCache.evict(surveyId);
+		}
+		surveyVersions.surveyChanged(surveyId);
+		return savedQuestions;
+	}
+
+	/**
+	 * Deletes a question by its ID, with its answers. The completions of its
+	 * survey by the users left without answers to it and the snapshots of the
+	 * results of the survey are removed in the same transaction.
 	 *
 	 * @param id The ID of the question to be deleted.
 	 * @throws IllegalArgumentException If the ID is null.
 	 */
+	@Transactional
 	public void deleteQuestion(Long id) throws IllegalArgumentException {
 		if (id == null) {
 			throw new IllegalArgumentException("id cannot be null.");
 		}
+		Long surveyId = questionRepository.findById(id)
+				.map(question -> question.getSurvey() == null ? null : question.getSurvey().getId())
+				.orElse(null);
 		questionRepository.deleteById(id);
+		surveyCompletionService.releaseCompletionsWithoutAnswers(surveyId);
+		surveyResultsSnapshotService.surveysEdited(surveyId);
+		ratingCounters.questionCleared(id);
+		questionsBySurveyCache.clear();
+		surveyVersions.allSurveysChanged();
 	}
 
 	/**
-	 * Finds questions by survey ID.
+	 * Finds questions by survey ID, from the cache if they are there.
 	 *
 	 * @param surveyId The ID of the survey.
-	 * @return Iterable collection of questions for the specified survey.
+	 * @return Iterable collection of new copies of the questions of the specified
+	 *         survey.
 	 * @throws IllegalArgumentException If the survey ID is null.
 	 */
 	public Iterable<Question> findBySurveyId(Long surveyId) throws IllegalArgumentException {
@@ -79,22 +174,40 @@ public class QuestionService {
 
 			throw new IllegalArgumentException("Survey id cannot be null.");
 		}
-		;
-		return questionRepository.findBySurveyId(surveyId);
+		// The version is read before the database, see SurveyService#getSurveyById
+		String version = surveyVersions.versionOf(surveyId);
+		List<CachedQuestion> cachedQuestions = surveyVersions.getIfCurrent(questionsBySurveyCache, surveyId, version);
+		if (cachedQuestions == null) {
+			List<CachedQuestion> questions = new ArrayList<CachedQuestion>();
+			for (Question question : questionRepository.findBySurveyId(surveyId)) {
+				questions.add(CachedQuestion.of(question));
+			}
+			cachedQuestions = List.copyOf(questions);
+			surveyVersions.put(questionsBySurveyCache, surveyId, version, cachedQuestions);
+		}
+		return cachedQuestions.stream().map(CachedQuestion::toQuestion).toList();
 	}
 
 	/**
-	 * Deletes questions by survey ID.
+	 * Deletes questions by survey ID, with their answers. The completions of the
+	 * survey and the snapshots of its results are removed in the same
+	 * transaction.
 	 *
 	 * @param surveyId The ID of the survey.
 	 * @throws IllegalArgumentException If the survey ID is null.
 	 */
+	@Transactional
 	public void deleteBySurveyId(Long surveyId) {
 		if (surveyId == null) {
 
 			throw new IllegalArgumentException("Survey id cannot be null.");
 		}
 		questionRepository.deleteBySurveyId(surveyId);
+		surveyCompletionService.releaseCompletionsWithoutAnswers(surveyId);
+		surveyResultsSnapshotService.surveysEdited(surveyId);
+		ratingCounters.surveyCleared(surveyId);
+		questionsBySurveyCache.evict(surveyId);
+		surveyVersions.surveyChanged(surveyId);
 	}
 
 	/**
@@ -0,0 +1,284 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.model.Answer;
+import com.example.demo.model.Question;
+import com.example.demo.model.RatingCount;
+import com.example.demo.repository.AnswerRepository;
+
+/**
+ * In-memory rating counters of every question, maintained on every write of an
+ * answer so the statistics of a survey can be read without querying the
+ * answers.
+ * 
+ * The counters are rebuilt from the ANSWER table when the application starts.
+ * Updates made inside a transaction are only applied once it commits.
+ * 
+ * A transaction holds the read lock from just before its commit until its
+ * updates are applied, and a rebuild holds the write lock while it reads the
+ * table and swaps the counters. A commit is thus either seen by the rebuild and
+ * applied before it, or not seen and applied to the rebuilt counters: no update
+ * is lost or counted twice.
+ */
+@Service
+public class RatingCounters {
+
+	/**
+	 * Rating counters of a single question.
+	 */
+	static final class QuestionCounter {
+		private final Long surveyId;
+		private final long[] histogram = new long[Answer.MAX_VALUE - Answer.MIN_VALUE + 1];
+		private long sum;
+		private long count;
+
+		QuestionCounter(Long surveyId) {
+			this.surveyId = surveyId;
+		}
+
+		synchronized void add(int rating, long times) {
+			// A rating out of range is counted as the nearest bound, in the sum too, so
+			// the mean agrees with the histogram
+			int index = SurveyService.histogramIndex(rating);
+			histogram[index] += times;
+			sum += (index + Answer.MIN_VALUE) * times;
+			count += times;
+		}
+
+		synchronized Snapshot snapshot() {
+			return new Snapshot(histogram.clone(), sum, count);
+		}
+	}
+
+	/**
+	 * Copy of the counters of a question at a given time.
+	 */
+	record Snapshot(long[] histogram, long sum, long count) {
+
+		static final Snapshot EMPTY = new Snapshot(new long[Answer.MAX_VALUE - Answer.MIN_VALUE + 1], 0, 0);
+
+		boolean sameAs(Snapshot other) {
+			return sum == other.sum && count == other.count && Arrays.equals(histogram, other.histogram);
+		}
+	}
+
+	private final AnswerRepository answerRepository;
+	private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+	private volatile Map<Long, QuestionCounter> countersByQuestionId = new ConcurrentHashMap<Long, QuestionCounter>();
+
+	public RatingCounters(AnswerRepository answerRepository) {
+		this.answerRepository = answerRepository;
+	}
+
+	/**
+	 * Rebuilds all the counters from the ANSWER table.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		rebuildLock.writeLock().lock();
+		try {
+			countersByQuestionId = load();
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Compares the counters with the content of the ANSWER table. No update is
+	 * applied during the comparison.
+	 *
+	 * @return The IDs of the questions whose counters do not match the table.
+	 */
+	public List<Long> findInconsistencies() {
+		rebuildLock.writeLock().lock();
+		try {
+			return findInconsistencies(load(), countersByQuestionId);
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+	}
+
+	private static List<Long> findInconsistencies(Map<Long, QuestionCounter> expected,
+			Map<Long, QuestionCounter> actual) {
+		List<Long> inconsistentQuestionIds = new ArrayList<Long>();
+
+		for (Map.Entry<Long, QuestionCounter> entry : expected.entrySet()) {
+			if (!getSnapshot(actual, entry.getKey()).sameAs(entry.getValue().snapshot())) {
+				inconsistentQuestionIds.add(entry.getKey());
+			}
+		}
+		for (Long questionId : actual.keySet()) {
+			if (!expected.containsKey(questionId) && !getSnapshot(actual, questionId).sameAs(Snapshot.EMPTY)) {
+				inconsistentQuestionIds.add(questionId);
+			}
+		}
+
+		return inconsistentQuestionIds;
+	}
+
+	/**
+	 * Returns the current counters of a question.
+	 *
+	 * @param questionId The ID of the question.
+	 * @return The counters of the question, empty if it was never rated.
+	 */
+	Snapshot getSnapshot(Long questionId) {
+		return getSnapshot(countersByQuestionId, questionId);
+	}
+
+	/**
+	 * Counts a new answer.
+	 *
+	 * @param answer The answer added to the database.
+	 */
+	public void answerAdded(Answer answer) {
+		Integer rating = answer.getRating();
+		Question question = answer.getQuestion();
+		if (rating != null && question != null) {
+			QuestionKey key = new QuestionKey(question);
+			afterCommit(() -> counterOf(key).add(rating, 1));
+		}
+	}
+
+	/**
+	 * Updates the counters after the rating or the question of an answer changed:
+	 * the previous rating is uncounted from the previous question, and the new
+	 * one counted for the new question.
+	 *
+	 * @param previousQuestion The question of the answer before the update, read
+	 *                         before the save, may be null.
+	 * @param previousRating   The rating of the answer before the update.
+	 * @param answer           The updated answer.
+	 */
+	void answerUpdated(QuestionKey previousQuestion, Integer previousRating, Answer answer) {
+		Integer rating = answer.getRating();
+		QuestionKey question = answer.getQuestion() == null ? null : new QuestionKey(answer.getQuestion());
+		if (Objects.equals(previousQuestion, question) && Objects.equals(previousRating, rating)) {
+			return;
+		}
+		afterCommit(() -> {
+			if (previousQuestion != null && previousRating != null) {
+				counterOf(previousQuestion).add(previousRating, -1);
+			}
+			if (question != null && rating != null) {
+				counterOf(question).add(rating, 1);
+			}
+		});
+	}
+
+	/**
+	 * Uncounts a deleted answer.
+	 *
+	 * @param answer The answer removed from the database.
+	 */
+	public void answerDeleted(Answer answer) {
+		Integer rating = answer.getRating();
+		Question question = answer.getQuestion();
+		if (rating != null && question != null) {
+			QuestionKey key = new QuestionKey(question);
+			afterCommit(() -> counterOf(key).add(rating, -1));
+		}
+	}
+
+	/**
+	 * Drops the counters of a question, after its answers or the question itself
+	 * were deleted.
+	 *
+	 * @param questionId The ID of the question.
+	 */
+	public void questionCleared(Long questionId) {
+		afterCommit(() -> countersByQuestionId.remove(questionId));
+	}
+
+	/**
+	 * Drops the counters of all the questions of a survey, after its questions or
+	 * the survey itself were deleted.
+	 *
+	 * @param surveyId The ID of the survey.
+	 */
+	public void surveyCleared(Long surveyId) {
+		afterCommit(() -> countersByQuestionId.values().removeIf(counter -> counter.surveyId.equals(surveyId)));
+	}
+
+	private QuestionCounter counterOf(QuestionKey key) {
+		return countersByQuestionId.computeIfAbsent(key.questionId(), questionId -> new QuestionCounter(key.surveyId()));
+	}
+
+	/**
+	 * IDs of a question and of its survey, read when the answer changes: the
+	 * question may be a lazy proxy that cannot be loaded any more once the
+	 * transaction committed.
+	 */
+	record QuestionKey(Long questionId, Long surveyId) {
+		QuestionKey(Question question) {
+			this(question.getId(), question.getSurvey().getId());
+		}
+	}
+
+	private Map<Long, QuestionCounter> load() {
+		Map<Long, QuestionCounter> counters = new ConcurrentHashMap<Long, QuestionCounter>();
+		for (RatingCount ratingCount : answerRepository.countRatings()) {
+			counters.computeIfAbsent(ratingCount.getQuestionId(), questionId -> new QuestionCounter(ratingCount.getSurveyId()))
+					.add(ratingCount.getRating(), ratingCount.getTotal());
+		}
+		return counters;
+	}
+
+	private static Snapshot getSnapshot(Map<Long, QuestionCounter> counters, Long questionId) {
+		QuestionCounter counter = counters.get(questionId);
+		return counter == null ? Snapshot.EMPTY : counter.snapshot();
+	}
+
+	/**
+	 * Runs an update of the counters once the current transaction commits, or
+	 * right away if there is no transaction. The read lock is taken before the
+	 * commit and released once the update is applied, see the class comment.
+	 */
+	private void afterCommit(Runnable update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				private boolean locked;
+
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					rebuildLock.readLock().lock();
+					locked = true;
+				}
+
+				@Override
+				public void afterCommit() {
+					update.run();
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					if (locked) {
+						rebuildLock.readLock().unlock();
+					}
+				}
+			});
+		} else {
+			rebuildLock.readLock().lock();
+			try {
+				update.run();
+			} finally {
+				rebuildLock.readLock().unlock();
+			}
+		}
+	}
+
+}
@@ -3,21 +3,34 @@ package com.example.demo.service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 
+import com.example.demo.exception.DuplicateSubmissionException;
 import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.exception.SurveyClosedException;
 import com.example.demo.model.Answer;
+import com.example.demo.model.CreatedSurveyDTO;
+import com.example.demo.model.PendingSubmission;
 import com.example.demo.model.Question;
 import com.example.demo.model.ResponseModel;
 import com.example.demo.model.Submission;
 import com.example.demo.model.Survey;
 import com.example.demo.model.SurveyResultDTO;
+import com.example.demo.model.SurveyResultsSnapshot;
+import com.example.demo.model.SurveyStatsDTO;
+import com.example.demo.model.SurveyWithQuestionsDTO;
 import com.example.demo.model.UserResultDTO;
 
+import jakarta.transaction.Transactional;
+
 /**
  * Service class for managing survey responses.
  */
@@ -27,11 +40,17 @@ public class ResponseService {
 	private final AnswerService answerService;
 	private final QuestionService questionService;
 	private final SurveyService surveyService;
+	private final SurveyCompletionService surveyCompletionService;
+	private final SurveyResultsSnapshotService surveyResultsSnapshotService;
 
-	public ResponseService(AnswerService answerService, QuestionService questionService, SurveyService surveyService) {
+	public ResponseService(AnswerService answerService, QuestionService questionService, SurveyService surveyService,
+			SurveyCompletionService surveyCompletionService,
+			SurveyResultsSnapshotService surveyResultsSnapshotService) {
 		this.answerService = answerService;
 		this.questionService = questionService;
 		this.surveyService = surveyService;
+		this.surveyCompletionService = surveyCompletionService;
+		this.surveyResultsSnapshotService = surveyResultsSnapshotService;
 	}
 
 	/**
@@ -45,21 +64,7 @@ public class ResponseService {
 		if (surveyId == null || userUuid == null) {
 			return Collections.emptyList();
 		}
-
-		Iterable<Question> questions = questionService.findBySurveyId(surveyId);
-		List<Answer> filteredAnswers = new ArrayList<>();
-
-		// Iterate over questions and filter answers for the given userUuid
-		for (Question question : questions) {
-			Iterable<Answer> answers = answerService.findByQuestionId(question.getId());
-			for (Answer answer : answers) {
-				if (answer.getUserUuid().equals(userUuid)) {
-					filteredAnswers.add(answer);
-				}
-			}
-		}
-
-		return filteredAnswers;
+		return answerService.findByUserUuidAndSurveyId(userUuid, surveyId);
 	}
 
 	/**
@@ -72,71 +77,213 @@ public class ResponseService {
 		if (userUuid == null) {
 			return Collections.emptyList();
 		}
-
-		Iterable<Survey> surveys = surveyService.getAllSurveys();
-		List<Answer> filteredAnswers = new ArrayList<>();
-
-		for (Survey survey : surveys) {
-			filteredAnswers.addAll(getAllAnswersOfSurveyFromUserUuid(survey.getId(), userUuid));
-		}
-
-		return filteredAnswers;
+		return answerService.findByUserUuid(userUuid);
 	}
 
 	/**
-	 * Checks if a user has answered a survey.
+	 * Checks if a user has answered a survey. This is a single lookup in the
+	 * survey completion index, whatever the number of answers of the survey.
 	 *
 	 * @param userUuid The UUID of the user.
 	 * @param surveyId The ID of the survey.
 	 * @return True if the user has answered the survey, false otherwise.
 	 */
 	public boolean hasAnswersFromUserUuidToSurvey(UUID userUuid, Long surveyId) {
-		return getAllAnswersOfSurveyFromUserUuid(surveyId, userUuid).size() > 0;
+		return surveyCompletionService.hasCompleted(surveyId, userUuid);
 	}
 
+	/**
+	 * Checks if a user has answered a question.
+	 *
+	 * @param userUuid   The UUID of the user.
+	 * @param questionId The ID of the question.
+	 * @return True if the user has answered the question, false otherwise.
+	 */
 	public boolean hasAnswersFromUserUuidToQuestion(UUID userUuid, Long questionId) {
-		List<Answer> allAnswer = getAllAnswersFromUserUuid(userUuid);
-		return allAnswer.stream().anyMatch(answer -> answer.getQuestion().getId().equals(questionId));
+		return answerService.existsByUserUuidAndQuestionId(userUuid, questionId);
 	}
 
 	/**
-	 * Processes a submission, adding answers to the database.
+	 * Processes a submission, adding answers to the database and recording the
+	 * survey as answered by the user.
+	 * 
+	 * All the questions of the submission are resolved with a single query and
+	 * the answers are inserted in one batch, in the same transaction as the
+	 * completion record, so a submission is either fully written or not at all.
 	 *
+	 * @param surveyId    The ID of the survey the submission is for.
 	 * @param userUuid    The UUID of the user submitting responses.
 	 * @param submissions List of submissions.
-	 * @throws ResourceNotFoundException If a question associated with a submission
-	 *                                   is not found in the database.
+	 * @throws ResourceNotFoundException If the survey or a question associated
+	 *                                   with a submission is not found in the
+	 *                                   database, or if the question does not
+	 *                                   belong to the survey.
+	 * @throws DuplicateSubmissionException If the user already answered the
+	 *                                      survey, even concurrently.
+	 * @throws SurveyClosedException        If the survey is closed.
 	 */
-	public void processSubmission(UUID userUuid, List<Submission> submissions) throws Exception {
+	@Transactional
+	public void processSubmission(Long surveyId, UUID userUuid, List<Submission> submissions) throws Exception {
+		savePendingSubmissions(List.of(validateSubmission(surveyId, userUuid, submissions)));
+	}
+
+	/**
+	 * Checks a submission and builds the answers to add to the database, without
+	 * writing anything.
+	 *
+	 * @param surveyId    The ID of the survey the submission is for.
+	 * @param userUuid    The UUID of the user submitting responses.
+	 * @param submissions List of submissions.
+	 * @return The validated submission, with a new ID.
+	 * @throws ResourceNotFoundException If the survey or a question associated
+	 *                                   with a submission is not found in the
+	 *                                   database, or if the question does not
+	 *                                   belong to the survey.
+	 * @throws SurveyClosedException     If the survey is closed.
+	 */
+	public PendingSubmission validateSubmission(Long surveyId, UUID userUuid, List<Submission> submissions)
+			throws ResourceNotFoundException, SurveyClosedException {
+
+		Survey survey = surveyService.findSurvey(surveyId);
+		if (survey == null) {
+			throw new ResourceNotFoundException("Survey associated with the submission not in the database.");
+		}
+		checkSurveyOpen(survey);
+
+		// We fetch all the questions of the submission at once
+		Set<Long> questionIds = new HashSet<Long>();
+		for (Submission submission : submissions) {
+			if (submission.getQuestionId() == null) {
+				throw new ResourceNotFoundException("Question associated with the submission not in the database.");
+			}
+			questionIds.add(submission.getQuestionId());
+		}
+
+		Map<Long, Question> questionsById = new HashMap<Long, Question>();
+		for (Question question : questionService.findAllById(questionIds)) {
+			questionsById.put(question.getId(), question);
+		}
 
 		// We store all the answers and check all the submissions before adding them to
 		// the database so if there is a problem with one of them we reject everything.
-		List<Answer> answersToAddToTheDatabase = new ArrayList<Answer>();
+		List<Answer> answersToAddToTheDatabase = new ArrayList<Answer>(submissions.size());
 
 		for (Submission submission : submissions) {
-			Long questionId = submission.getQuestionId();
-			Integer rating = submission.getRating();
-
-			// Check if the question is still in the database otherwise we reject everything
-			// (nothing was add to the database)
-			Question question = questionService.findQuestion(questionId);
-			if (question == null) {
-				throw new ResourceNotFoundException("Question associated with the submission not in the database.");
+			// Check if the question is still in the database and belongs to the survey,
+			// otherwise we reject everything (nothing was add to the database)
+			Question question = questionsById.get(submission.getQuestionId());
+			if (question == null || !surveyId.equals(question.getSurvey().getId())) {
+				throw new ResourceNotFoundException("Question associated with the submission not in the survey.");
 			}
 
 			Answer newAnswer = new Answer();
-			newAnswer.setRating(rating);
+			newAnswer.setRating(submission.getRating());
 			newAnswer.setQuestion(question);
 			newAnswer.setUserUuId(userUuid);
 
 			answersToAddToTheDatabase.add(newAnswer);
 		}
 
-		// Everything seems to be ok, we add all the answers to the database
-		for (Answer answer : answersToAddToTheDatabase) {
-			answerService.saveAnswer(answer);
+		return new PendingSubmission(UUID.randomUUID(), survey, userUuid, answersToAddToTheDatabase);
+	}
+
+	/**
+	 * Writes validated submissions in a single transaction: the surveys are first
+	 * recorded as answered by their users, then the answers of all the
+	 * submissions are inserted in one batch. Either all the submissions are
+	 * written or none.
+	 * 
+	 * Recording the completion first makes the unique (survey, user) constraint
+	 * the guard against duplicates: if another transaction already recorded it,
+	 * this one fails before inserting any answer.
+	 *
+	 * @param pendingSubmissions The submissions to write.
+	 * @throws DuplicateSubmissionException If a user already answered the survey
+	 *                                      of its submission.
+	 * @throws SurveyClosedException        If the survey of a submission was
+	 *                                      closed since it was validated.
+	 */
+	@Transactional
+	public void savePendingSubmissions(List<PendingSubmission> pendingSubmissions)
+			throws DuplicateSubmissionException, SurveyClosedException {
+		List<Answer> answersToAddToTheDatabase = new ArrayList<Answer>();
+		// A queued submission may have been validated before its survey was closed.
+		// The shared locks of the surveys are taken in the order of their IDs, so
+		// they are always taken in the same order
+		Set<Long> surveyIds = new TreeSet<Long>();
+		for (PendingSubmission pendingSubmission : pendingSubmissions) {
+			surveyIds.add(pendingSubmission.survey().getId());
+		}
+		for (Long surveyId : surveyIds) {
+			checkSurveyOpenForSubmission(surveyId);
+		}
+
+		for (PendingSubmission pendingSubmission : pendingSubmissions) {
+			if (!pendingSubmission.answers().isEmpty()) {
+				surveyCompletionService.claimCompletion(pendingSubmission.survey(), pendingSubmission.userUuid());
+			}
+			answersToAddToTheDatabase.addAll(pendingSubmission.answers());
+		}
+
+		answerService.saveAnswers(answersToAddToTheDatabase);
+	}
+
+	/**
+	 * Creates a survey with all its questions in a single transaction. The
+	 * questions get their IDs from a pooled sequence, so they are inserted in
+	 * batches instead of one statement each.
+	 *
+	 * @param newSurvey The survey and its questions.
+	 * @return The IDs of the survey and of its questions, in the order of the
+	 *         request.
+	 * @throws IllegalArgumentException If the survey has no title, or one of the
+	 *                                  questions has no text.
+	 */
+	@Transactional
+	public CreatedSurveyDTO createSurveyWithQuestions(SurveyWithQuestionsDTO newSurvey)
+			throws IllegalArgumentException {
+		if (newSurvey == null || newSurvey.getTitle() == null) {
+			throw new IllegalArgumentException("survey title cannot be null.");
+		}
+		List<Question> newQuestions = newSurvey.getQuestions() == null ? List.of() : newSurvey.getQuestions();
+		for (Question newQuestion : newQuestions) {
+			if (newQuestion == null || newQuestion.getText() == null) {
+				throw new IllegalArgumentException("question text cannot be null.");
+			}
+		}
+
+		Survey savedSurvey = surveyService.saveSurvey(new Survey(newSurvey.getTitle(), newSurvey.getDesc()));
+
+		List<Question> questionsToAddToTheDatabase = new ArrayList<Question>(newQuestions.size());
+		for (Question newQuestion : newQuestions) {
+			questionsToAddToTheDatabase.add(new Question(newQuestion.getText(), savedSurvey));
 		}
 
+		List<Long> questionIds = new ArrayList<Long>(questionsToAddToTheDatabase.size());
+		for (Question savedQuestion : questionService.saveQuestionsOfSurvey(savedSurvey.getId(),
+				questionsToAddToTheDatabase)) {
+			questionIds.add(savedQuestion.getId());
+		}
+
+		return new CreatedSurveyDTO(savedSurvey.getId(), questionIds);
+	}
+
+	/**
+	 * Saves a single answer to a question and records the survey of the question
+	 * as answered by the user of the answer, with the shared lock of the survey.
+	 *
+	 * @param question The question answered.
+	 * @param answer   The answer to save.
+	 * @return The saved answer.
+	 * @throws SurveyClosedException If the survey of the question is closed.
+	 */
+	@Transactional
+	public Answer saveAnswerToQuestion(Question question, Answer answer) throws SurveyClosedException {
+		checkSurveyOpenForSubmission(question.getSurvey().getId());
+		answer.setQuestion(question);
+		Answer savedAnswer = answerService.saveAnswer(answer);
+		surveyCompletionService.markCompleted(question.getSurvey(), savedAnswer.getUserUuid());
+		return savedAnswer;
 	}
 
 	/**
@@ -151,11 +298,15 @@ public class ResponseService {
 
 		Iterable<Survey> allSurveys = surveyService.getAllSurveys();
 
+		// One query for all the surveys answered by the user, instead of one check per
+		// survey
+		Set<Long> answeredSurveyIds = surveyCompletionService.findCompletedSurveyIds(userUuid);
+
 		ArrayList<Survey> surveysAnswered = new ArrayList<Survey>();
 		ArrayList<Survey> surveysNotAnswered = new ArrayList<Survey>();
 
 		for (Survey survey : allSurveys) {
-			if (hasAnswersFromUserUuidToSurvey(userUuid, survey.getId())) {
+			if (answeredSurveyIds.contains(survey.getId())) {
 				surveysAnswered.add(survey);
 			} else {
 				surveysNotAnswered.add(survey);
@@ -192,13 +343,15 @@ public class ResponseService {
 	}
 
 	/**
-	 * Returns the list of the surveys in ResponseModel format
+	 * Returns a page of the surveys in ResponseModel format, ordered by ID.
 	 * 
-	 * @return
+	 * @param after The ID after which the page starts.
+	 * @param limit The maximum number of surveys of the page.
+	 * @return List of the surveys of the page.
 	 */
-	public ArrayList<ResponseModel<Survey>> getAllSurveyJson() {
-		Iterable<Survey> surveys = surveyService.getAllSurveys();
-		ArrayList<ResponseModel<Survey>> responses = new ArrayList<ResponseModel<Survey>>();
+	public ArrayList<ResponseModel<Survey>> getAllSurveyJson(long after, int limit) {
+		List<Survey> surveys = surveyService.getSurveysAfter(after, limit, null);
+		ArrayList<ResponseModel<Survey>> responses = new ArrayList<ResponseModel<Survey>>(surveys.size());
 		for (Survey survey : surveys) {
 			ResponseModel<Survey> surveyResponseModel = new ResponseModel<Survey>();
 			surveyResponseModel.setData(survey);
@@ -225,37 +378,52 @@ public class ResponseService {
 	}
 
 	/**
-	 * Retrieves all questions in a survey.
+	 * Retrieves a survey that must exist.
 	 *
 	 * @param surveyId The ID of the survey.
-	 * @return Iterable collection of questions.
+	 * @return The survey.
 	 * @throws IllegalArgumentException If the survey ID is null or the survey does
 	 *                                  not exist.
 	 */
-	public Iterable<Question> getQuestionsFromSurveyId(Long surveyId) throws IllegalArgumentException {
+	public Survey getExistingSurvey(Long surveyId) throws IllegalArgumentException {
 		Survey survey = surveyService.findSurvey(surveyId);
 
 		if (survey == null) {
 			throw new IllegalArgumentException();
 		}
+		return survey;
+	}
+
+	/**
+	 * Retrieves all questions in a survey.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return Iterable collection of questions.
+	 * @throws IllegalArgumentException If the survey ID is null or the survey does
+	 *                                  not exist.
+	 */
+	public Iterable<Question> getQuestionsFromSurveyId(Long surveyId) throws IllegalArgumentException {
+		getExistingSurvey(surveyId);
 		return questionService.findBySurveyId(surveyId);
 	}
 
 	/**
-	 * Retrieves all answers for a survey.
+	 * Retrieves all answers for a survey, grouped by question. The answers of all
+	 * the questions are read with a single query, instead of one per question.
 	 *
 	 * @param surveyId The ID of the survey.
-	 * @return List of answer collections.
+	 * @return List of answer collections, one per question of the survey.
 	 */
 	public ArrayList<Iterable<Answer>> getAllAnswersForSurvey(Long surveyId) {
 
 		try {
 			Iterable<Question> questions = getQuestionsFromSurveyId(surveyId);
-			ArrayList<Iterable<Answer>> allAnswersForSurvey = new ArrayList<Iterable<Answer>>();
+			Map<Long, List<Answer>> answersByQuestionId = groupAnswersByQuestionId(
+					answerService.findBySurveyId(surveyId));
 
+			ArrayList<Iterable<Answer>> allAnswersForSurvey = new ArrayList<Iterable<Answer>>();
 			for (Question question : questions) {
-				Iterable<Answer> answersForQuestions = answerService.findByQuestionId(question.getId());
-				allAnswersForSurvey.add(answersForQuestions);
+				allAnswersForSurvey.add(answersByQuestionId.getOrDefault(question.getId(), new ArrayList<Answer>()));
 			}
 
 			return allAnswersForSurvey;
@@ -267,7 +435,8 @@ public class ResponseService {
 	}
 
 	/**
-	 * Retrieves full survey results summary.
+	 * Retrieves full survey results summary. The answers of all the questions are
+	 * read with a single query, instead of one per question.
 	 *
 	 * @param surveyId The ID of the survey.
 	 * @return Survey result DTO.
@@ -278,16 +447,15 @@ public class ResponseService {
 
 		try {
 			Iterable<Question> questions = getQuestionsFromSurveyId(surveyId);
+			Map<Long, List<Answer>> answersByQuestionId = groupAnswersByQuestionId(
+					answerService.findBySurveyId(surveyId));
 
 			ArrayList<Answer> allAnswersForSurvey = new ArrayList<Answer>();
 			ArrayList<Question> allQuestionsForSurvey = new ArrayList<Question>();
 
 			for (Question question : questions) {
 				allQuestionsForSurvey.add(question);
-				Iterable<Answer> answersForQuestions = answerService.findByQuestionId(question.getId());
-				for (Answer answer : answersForQuestions) {
-					allAnswersForSurvey.add(answer);
-				}
+				allAnswersForSurvey.addAll(answersByQuestionId.getOrDefault(question.getId(), List.of()));
 			}
 
 			return surveyService.transformSurveyResultsToDTO(allAnswersForSurvey,
@@ -297,8 +465,19 @@ public class ResponseService {
 		}
 	}
 
+	private static Map<Long, List<Answer>> groupAnswersByQuestionId(List<Answer> answers) {
+		Map<Long, List<Answer>> answersByQuestionId = new HashMap<Long, List<Answer>>();
+		for (Answer answer : answers) {
+			answersByQuestionId.computeIfAbsent(answer.getQuestion().getId(), questionId -> new ArrayList<Answer>())
+					.add(answer);
+		}
+		return answersByQuestionId;
+	}
+
 	/**
-	 * Retrieves survey results by user.
+	 * Retrieves survey results by user, ordered by user UUID. The answers of each
+	 * user are ordered by question. The results are read with a single query,
+	 * without loading any entity.
 	 *
 	 * @param surveyId The ID of the survey.
 	 * @return List of user result DTOs.
@@ -306,27 +485,123 @@ public class ResponseService {
 	 *                                  not exist.
 	 */
 	public List<UserResultDTO> getSurveyResultsByUser(Long surveyId) throws IllegalArgumentException {
-		try {
-			Iterable<Question> questions = getQuestionsFromSurveyId(surveyId);
-			Map<UUID, List<Answer>> allUserUUIDMap = new HashMap<UUID, List<Answer>>();
+		getExistingSurvey(surveyId);
 
-			for (Question question : questions) {
-				Iterable<Answer> answersForQuestions = answerService.findByQuestionId(question.getId());
-				for (Answer answer : answersForQuestions) {
-					UUID userUuid = answer.getUserUuid();
-					List<Answer> userAnswers = allUserUUIDMap.getOrDefault(userUuid, new ArrayList<Answer>());
-
-					if (userAnswers.size() == 0) {
-						allUserUUIDMap.put(userUuid, userAnswers);
-					}
-					userAnswers.add(answer);
-				}
+		// The rows come ordered by user, so each row either continues the answers of the
+		// last user or starts a new one
+		List<UserResultDTO> userResultDTOs = new ArrayList<UserResultDTO>();
+		answerService.forEachAnswerOfSurvey(surveyId,
+				row -> surveyService.addSurveyAnswerRowToDTOForUsers(userResultDTOs, row));
+
+		return userResultDTOs;
+	}
+
+	/**
+	 * Retrieves the aggregated ratings of every question of a survey. The ratings
+	 * are read from the in-memory counters, the answers are not queried.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return Survey statistics DTO.
+	 * @throws IllegalArgumentException If the survey ID is null or the survey does
+	 *                                  not exist.
+	 */
+	public SurveyStatsDTO getSurveyResultsStats(Long surveyId) throws IllegalArgumentException {
+		Survey survey = getExistingSurvey(surveyId);
+
+		return surveyService.transformRatingCountersToStatsDTO(survey, questionService.findBySurveyId(surveyId));
+	}
+
+	/**
+	 * Closes a survey: it takes no more submissions and its results are
+	 * materialized as snapshots, served by the results endpoints. If a snapshot
+	 * cannot be taken, the survey is reopened.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return The closed survey.
+	 * @throws IllegalArgumentException If the survey ID is null or the survey does
+	 *                                  not exist.
+	 */
+	public Survey closeSurvey(Long surveyId) throws IllegalArgumentException {
+		getExistingSurvey(surveyId);
+
+		// The close commits before the snapshots are taken: the submissions are
+		// either written before it, or rejected
+		Survey survey = surveyService.setSurveyClosed(surveyId, true);
+		try {
+			for (SurveyResultsSnapshot.Format format : SurveyResultsSnapshot.Format.values()) {
+				getSurveyResultsSnapshot(surveyId, format);
 			}
+		} catch (RuntimeException e) {
+			// Reopened first, so no snapshot is taken after they are discarded
+			surveyService.setSurveyClosed(surveyId, false);
+			surveyResultsSnapshotService.discardSnapshots(surveyId);
+			throw e;
+		}
+		return survey;
+	}
 
-			return surveyService.transformSurveyResultsToDTOForUsers(allUserUUIDMap);
+	/**
+	 * Reopens a survey to submissions and discards the snapshots of its results.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return The reopened survey.
+	 * @throws IllegalArgumentException If the survey ID is null or the survey does
+	 *                                  not exist.
+	 */
+	@Transactional
+	public Survey reopenSurvey(Long surveyId) throws IllegalArgumentException {
+		getExistingSurvey(surveyId);
+
+		// The survey is locked as when it is closed, before its row
+		Survey survey = surveyService.setSurveyClosed(surveyId, false);
+		surveyResultsSnapshotService.discardSnapshots(surveyId);
+		return survey;
+	}
 
-		} catch (IllegalArgumentException e) {
-			throw new IllegalArgumentException(e.getMessage());
+	/**
+	 * Retrieves the results of a closed survey as gzip-compressed JSON, with the
+	 * same content as {@link #getSurveyResultsFullSummary(Long)} or
+	 * {@link #getSurveyResultsByUser(Long)}. The snapshot is taken if it is
+	 * missing, e.g. after the survey was edited.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param format   The format of the results.
+	 * @return The compressed results, or null if the survey is open or has no
+	 *         answers.
+	 * @throws IllegalArgumentException If the survey ID is null or the survey does
+	 *                                  not exist.
+	 */
+	public byte[] getSurveyResultsSnapshot(Long surveyId, SurveyResultsSnapshot.Format format)
+			throws IllegalArgumentException {
+		Survey survey = getExistingSurvey(surveyId);
+		if (!survey.isClosed()) {
+			return null;
+		}
+
+		Optional<byte[]> snapshot = surveyResultsSnapshotService.findSnapshot(surveyId, format);
+		if (snapshot.isPresent()) {
+			return snapshot.get();
+		}
+
+		return surveyResultsSnapshotService.takeSnapshot(survey, format,
+				() -> format == SurveyResultsSnapshot.Format.FULL ? getSurveyResultsFullSummary(surveyId)
+						: getSurveyResultsByUser(surveyId));
+	}
+
+	private static void checkSurveyOpen(Survey survey) throws SurveyClosedException {
+		if (survey != null && survey.isClosed()) {
+			throw new SurveyClosedException("Survey " + survey.getId() + " is closed.");
+		}
+	}
+
+	/**
+	 * Checks that a survey is open in the database and takes its shared lock until
+	 * the end of the current transaction, so it cannot be closed before the
+	 * submission is written.
+	 */
+	private void checkSurveyOpenForSubmission(Long surveyId) throws SurveyClosedException {
+		if (surveyService.findClosedForWrite(surveyId).orElse(false)) {
+			throw new SurveyClosedException("Survey " + surveyId + " is closed.");
 		}
 	}
 }
@@ -0,0 +1,232 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.Answer;
+import com.example.demo.model.PendingSubmission;
+import com.example.demo.model.SubmissionStatus;
+import com.example.demo.model.SubmissionStatusDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bounded in-memory queue of validated submissions, written to the database by
+ * a single writer thread.
+ * 
+ * The writer takes as many submissions as are waiting, up to the batch size,
+ * and writes them in one transaction. If the transaction fails, the
+ * submissions of the batch are written again one by one so that only the
+ * faulty ones are rejected. The status of a submission can be read for an
+ * hour after it was queued.
+ * 
+ * The submissions are added under the read lock of {@code lifecycleLock} and
+ * the queue is stopped under its write lock, so once {@link #stop()} returns
+ * from the lock no submission can be added that the writer would not drain.
+ */
+@Service
+public class SubmissionQueue {
+
+	private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+	private static final long POLL_TIMEOUT_MILLISECONDS = 100;
+	private static final long SHUTDOWN_TIMEOUT_MILLISECONDS = 30_000;
+
+	private final ResponseService responseService;
+	private final BlockingQueue<PendingSubmission> queue;
+	private final int batchSize;
+	private final Cache<UUID, SubmissionStatusDTO> statuses;
+	// Survey and user of the submissions not written yet, a user cannot have two
+	// submissions to the same survey in the queue
+	private final Set<String> queuedSurveyUsers = ConcurrentHashMap.newKeySet();
+	private final Thread writer;
+	private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+	private volatile boolean running = true;
+
+	public SubmissionQueue(ResponseService responseService,
+			@Value("${submissions.queue.capacity:10000}") int capacity,
+			@Value("${submissions.queue.batch-size:500}") int batchSize) {
+		this.responseService = responseService;
+		this.queue = new ArrayBlockingQueue<PendingSubmission>(capacity);
+		this.batchSize = batchSize;
+		this.statuses = Caffeine.newBuilder()
+				.expireAfterWrite(STATUS_RETENTION)
+				.build();
+		this.writer = new Thread(this::writeUntilStopped, "submission-writer");
+		this.writer.setDaemon(true);
+	}
+
+	@PostConstruct
+	void start() {
+		writer.start();
+	}
+
+	/**
+	 * Stops accepting submissions and waits for the queued ones to be written.
+	 */
+	@PreDestroy
+	void stop() throws InterruptedException {
+		lifecycleLock.writeLock().lock();
+		try {
+			running = false;
+		} finally {
+			lifecycleLock.writeLock().unlock();
+		}
+		writer.join(SHUTDOWN_TIMEOUT_MILLISECONDS);
+	}
+
+	/**
+	 * Adds a validated submission to the queue.
+	 * 
+	 * The survey and user of the submission are reserved before the completion of
+	 * the survey is checked. A submission of the same user leaves the queue only
+	 * after it is written, so it is either still reserved or already recorded as
+	 * completed.
+	 *
+	 * @param pendingSubmission The submission.
+	 * @return The status of the submission, queued.
+	 * @throws IllegalArgumentException If the user already has a submission to
+	 *                                  the same survey in the queue, or already
+	 *                                  answered the survey.
+	 * @throws IllegalStateException    If the queue is full or stopped.
+	 */
+	public SubmissionStatusDTO enqueue(PendingSubmission pendingSubmission)
+			throws IllegalArgumentException, IllegalStateException {
+		String surveyUser = surveyUser(pendingSubmission);
+		if (!queuedSurveyUsers.add(surveyUser)) {
+			throw new IllegalArgumentException("A submission of the user to the survey is already queued.");
+		}
+		if (responseService.hasAnswersFromUserUuidToSurvey(pendingSubmission.userUuid(),
+				pendingSubmission.survey().getId())) {
+			queuedSurveyUsers.remove(surveyUser);
+			throw new IllegalArgumentException("The user already answered the survey.");
+		}
+
+		lifecycleLock.readLock().lock();
+		try {
+			if (!running) {
+				queuedSurveyUsers.remove(surveyUser);
+				throw new IllegalStateException("The submission queue is stopped.");
+			}
+			SubmissionStatusDTO status = setStatus(pendingSubmission, SubmissionStatus.QUEUED);
+			if (!queue.offer(pendingSubmission)) {
+				statuses.invalidate(pendingSubmission.id());
+				queuedSurveyUsers.remove(surveyUser);
+				throw new IllegalStateException("The submission queue is full.");
+			}
+			return status;
+		} finally {
+			lifecycleLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Checks if a user has a submission to a survey waiting in the queue.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param userUuid The UUID of the user.
+	 * @return True if a submission of the user to the survey is not written yet.
+	 */
+	public boolean isQueued(Long surveyId, UUID userUuid) {
+		return queuedSurveyUsers.contains(surveyUser(surveyId, userUuid));
+	}
+
+	/**
+	 * Retrieves the status of a submission.
+	 *
+	 * @param submissionId The ID of the submission.
+	 * @return The status of the submission, or null if it is unknown or expired.
+	 */
+	public SubmissionStatusDTO getStatus(UUID submissionId) {
+		if (submissionId == null) {
+			return null;
+		}
+		return statuses.getIfPresent(submissionId);
+	}
+
+	/**
+	 * @return The number of submissions waiting to be written.
+	 */
+	public int size() {
+		return queue.size();
+	}
+
+	private void writeUntilStopped() {
+		while (running || !queue.isEmpty()) {
+			try {
+				PendingSubmission first = queue.poll(POLL_TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				List<PendingSubmission> batch = new ArrayList<PendingSubmission>(batchSize);
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void write(List<PendingSubmission> batch) {
+		try {
+			responseService.savePendingSubmissions(batch);
+			for (PendingSubmission pendingSubmission : batch) {
+				written(pendingSubmission, SubmissionStatus.DURABLE);
+			}
+		} catch (RuntimeException batchException) {
+			for (PendingSubmission pendingSubmission : batch) {
+				writeAlone(pendingSubmission);
+			}
+		}
+	}
+
+	private void writeAlone(PendingSubmission pendingSubmission) {
+		// The ids given to the answers by the failed transaction were rolled back
+		for (Answer answer : pendingSubmission.answers()) {
+			answer.setId(null);
+		}
+		try {
+			responseService.savePendingSubmissions(List.of(pendingSubmission));
+			written(pendingSubmission, SubmissionStatus.DURABLE);
+		} catch (RuntimeException e) {
+			written(pendingSubmission, SubmissionStatus.FAILED);
+		}
+	}
+
+	private void written(PendingSubmission pendingSubmission, SubmissionStatus status) {
+		setStatus(pendingSubmission, status);
+		queuedSurveyUsers.remove(surveyUser(pendingSubmission));
+	}
+
+	private SubmissionStatusDTO setStatus(PendingSubmission pendingSubmission, SubmissionStatus status) {
+		SubmissionStatusDTO statusDTO = new SubmissionStatusDTO(pendingSubmission.id(),
+				pendingSubmission.survey().getId(), status);
+		statuses.put(pendingSubmission.id(), statusDTO);
+		return statusDTO;
+	}
+
+	private static String surveyUser(PendingSubmission pendingSubmission) {
+		return surveyUser(pendingSubmission.survey().getId(), pendingSubmission.userUuid());
+	}
+
+	private static String surveyUser(Long surveyId, UUID userUuid) {
+		return surveyId + "/" + userUuid;
+	}
+
+}
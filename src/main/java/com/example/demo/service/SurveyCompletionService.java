@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.exception.DuplicateSubmissionException;
+import com.example.demo.model.Survey;
+import com.example.demo.repository.SurveyCompletionJdbcRepository;
+import com.example.demo.repository.SurveyCompletionRepository;
+
+/**
+ * Service class for managing the survey completion index.
+ */
+@Service
+public class SurveyCompletionService {
+	private final SurveyCompletionRepository surveyCompletionRepository;
+	private final SurveyCompletionJdbcRepository surveyCompletionJdbcRepository;
+
+	public SurveyCompletionService(SurveyCompletionRepository surveyCompletionRepository,
+			SurveyCompletionJdbcRepository surveyCompletionJdbcRepository) {
+		this.surveyCompletionRepository = surveyCompletionRepository;
+		this.surveyCompletionJdbcRepository = surveyCompletionJdbcRepository;
+	}
+
+	/**
+	 * Checks if a user has completed a survey.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param userUuid The UUID of the user.
+	 * @return True if the user has completed the survey, false otherwise.
+	 */
+	public boolean hasCompleted(Long surveyId, UUID userUuid) {
+		if (surveyId == null || userUuid == null) {
+			return false;
+		}
+		return surveyCompletionRepository.existsBySurveyIdAndUserUuid(surveyId, userUuid);
+	}
+
+	/**
+	 * Retrieves the IDs of all the surveys completed by a user, in a single query.
+	 *
+	 * @param userUuid The UUID of the user.
+	 * @return Set of the IDs of the surveys completed by the user.
+	 */
+	public Set<Long> findCompletedSurveyIds(UUID userUuid) {
+		if (userUuid == null) {
+			return Collections.emptySet();
+		}
+		return surveyCompletionRepository.findSurveyIdsByUserUuid(userUuid);
+	}
+
+	/**
+	 * Records that a user completed a survey. Does nothing if it was already
+	 * recorded, even by a concurrent transaction: the row is inserted as by
+	 * {@link #claimCompletion(Survey, UUID)}, and a duplicate is ignored.
+	 *
+	 * @param survey   The survey.
+	 * @param userUuid The UUID of the user.
+	 * @throws IllegalArgumentException If the survey or the UUID is null.
+	 */
+	public void markCompleted(Survey survey, UUID userUuid) {
+		insertCompletion(survey, userUuid);
+	}
+
+	/**
+	 * Removes the completion of a survey by a user once the user has no answer
+	 * left to the survey, so the user can answer it again. Does nothing if some
+	 * answers are left. Runs in the transaction of the caller, after the answers
+	 * were deleted or moved.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param userUuid The UUID of the user.
+	 */
+	public void releaseCompletion(Long surveyId, UUID userUuid) {
+		if (surveyId == null || userUuid == null) {
+			return;
+		}
+		surveyCompletionRepository.deleteWithoutAnswersBySurveyIdAndUserUuid(surveyId, userUuid);
+	}
+
+	/**
+	 * Removes the completions of a survey by the users who have no answer left to
+	 * it, e.g. after some of its questions were deleted. Runs in the transaction
+	 * of the caller.
+	 *
+	 * @param surveyId The ID of the survey.
+	 */
+	public void releaseCompletionsWithoutAnswers(Long surveyId) {
+		if (surveyId == null) {
+			return;
+		}
+		surveyCompletionRepository.deleteWithoutAnswersBySurveyId(surveyId);
+	}
+
+	/**
+	 * Removes the completions of the survey of a question by the users who have
+	 * no answer left to it, after the answers to the question were deleted. Runs
+	 * in the transaction of the caller.
+	 *
+	 * @param questionId The ID of the question, which must still exist.
+	 */
+	public void releaseCompletionsWithoutAnswersOfQuestion(Long questionId) {
+		if (questionId == null) {
+			return;
+		}
+		surveyCompletionRepository.deleteWithoutAnswersBySurveyOfQuestionId(questionId);
+	}
+
+	/**
+	 * Records that a user completed a survey, failing if it was already recorded.
+	 * The row is inserted right away, so the unique (survey, user) constraint is
+	 * checked by the database before the caller inserts the answers in the same
+	 * transaction. Among concurrent transactions claiming the same survey for the
+	 * same user, only one can commit: the others wait for it and fail.
+	 *
+	 * @param survey   The survey.
+	 * @param userUuid The UUID of the user.
+	 * @throws IllegalArgumentException     If the survey or the UUID is null.
+	 * @throws DuplicateSubmissionException If the user already completed the
+	 *                                      survey. The current transaction must be
+	 *                                      rolled back.
+	 */
+	public void claimCompletion(Survey survey, UUID userUuid) throws DuplicateSubmissionException {
+		if (!insertCompletion(survey, userUuid)) {
+			throw new DuplicateSubmissionException("Survey already answered by the user.");
+		}
+	}
+
+	/**
+	 * Inserts the completion of a survey by a user, the unique (survey, user)
+	 * constraint rejecting a duplicate.
+	 *
+	 * @return true if the completion was inserted, false if it already existed.
+	 */
+	private boolean insertCompletion(Survey survey, UUID userUuid) {
+		if (survey == null || userUuid == null) {
+			throw new IllegalArgumentException("survey and user uuid cannot be null.");
+		}
+		return surveyCompletionJdbcRepository.insertIfAbsent(survey.getId(), userUuid);
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory locks of the surveys, held until the end of the current
+ * transaction: shared by the transactions writing submissions to a survey, and
+ * exclusive for the one closing or reopening it. A submission is thus either
+ * written before its survey is closed or sees it closed, while the submissions
+ * to the same survey are written concurrently.
+ *
+ * The row lock of the database is not used for the submissions: H2 has no
+ * shared row lock, a PESSIMISTIC_READ lock is taken as FOR UPDATE and would
+ * write the submissions to a survey one at a time.
+ */
+@Service
+public class SurveyLocks {
+
+	private final Map<Long, ReadWriteLock> locks = new ConcurrentHashMap<Long, ReadWriteLock>();
+
+	/**
+	 * Takes the shared lock of a survey until the current transaction completes.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @throws IllegalStateException If there is no current transaction.
+	 */
+	public void lockShared(Long surveyId) {
+		holdUntilCompletion(lockOf(surveyId).readLock());
+	}
+
+	/**
+	 * Takes the exclusive lock of a survey until the current transaction
+	 * completes, once the transactions holding its shared lock have completed.
+	 * The shared lock cannot be upgraded: a transaction holding it must not ask
+	 * for the exclusive one.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @throws IllegalStateException If there is no current transaction.
+	 */
+	public void lockExclusive(Long surveyId) {
+		holdUntilCompletion(lockOf(surveyId).writeLock());
+	}
+
+	private ReadWriteLock lockOf(Long surveyId) {
+		return locks.computeIfAbsent(surveyId, id -> new ReentrantReadWriteLock());
+	}
+
+	/**
+	 * Takes a lock and releases it once the current transaction has completed,
+	 * after it committed or rolled back. The synchronizations run on the thread
+	 * of the transaction, which owns the lock.
+	 */
+	private static void holdUntilCompletion(Lock lock) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("A survey can only be locked in a transaction.");
+		}
+		lock.lock();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				lock.unlock();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.Survey;
+import com.example.demo.model.SurveyResultsSnapshot;
+import com.example.demo.repository.SurveyResultsSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Service class for managing the results snapshots of the closed surveys.
+ * <p>
+ * A snapshot is taken and discarded with the survey locked, so results read
+ * before their survey was edited are never saved after its snapshots were
+ * discarded. The snapshots of an edited survey are discarded in the
+ * transaction of the edit.
+ */
+@Service
+public class SurveyResultsSnapshotService {
+	private final SurveyResultsSnapshotRepository surveyResultsSnapshotRepository;
+	private final SurveyService surveyService;
+	private final ObjectMapper objectMapper;
+
+	public SurveyResultsSnapshotService(SurveyResultsSnapshotRepository surveyResultsSnapshotRepository,
+			SurveyService surveyService, ObjectMapper objectMapper) {
+		this.surveyResultsSnapshotRepository = surveyResultsSnapshotRepository;
+		this.surveyService = surveyService;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Retrieves the snapshot of the results of a survey.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @param format   The format of the results.
+	 * @return Optional containing the results as gzip-compressed JSON, or empty
+	 *         if there is no snapshot.
+	 */
+	public Optional<byte[]> findSnapshot(Long surveyId, SurveyResultsSnapshot.Format format) {
+		if (surveyId == null || format == null) {
+			return Optional.empty();
+		}
+		return surveyResultsSnapshotRepository.findGzipBySurveyIdAndFormat(surveyId, format);
+	}
+
+	/**
+	 * Takes the snapshot of the results of a closed survey, unless another
+	 * request took it first. The results are read and saved with the survey
+	 * locked, written as JSON with the same mapper as the responses, then
+	 * compressed with gzip.
+	 *
+	 * @param survey  The survey.
+	 * @param format  The format of the results.
+	 * @param results Reads the results, or null if there are none.
+	 * @return The results as gzip-compressed JSON, or null if the survey is no
+	 *         longer closed or has no results.
+	 * @throws IllegalArgumentException If the survey, the format or the results
+	 *                                  are null.
+	 */
+	@Transactional
+	public byte[] takeSnapshot(Survey survey, SurveyResultsSnapshot.Format format, Supplier<Object> results) {
+		if (survey == null || format == null || results == null) {
+			throw new IllegalArgumentException("survey, format and results cannot be null.");
+		}
+		if (!surveyService.findClosedForUpdate(survey.getId()).orElse(false)) {
+			return null;
+		}
+		Optional<byte[]> snapshot = findSnapshot(survey.getId(), format);
+		if (snapshot.isPresent()) {
+			return snapshot.get();
+		}
+		Object readResults = results.get();
+		if (readResults == null) {
+			return null;
+		}
+
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		try (GZIPOutputStream outputStream = new GZIPOutputStream(gzip)) {
+			objectMapper.writeValue(outputStream, readResults);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		byte[] gzippedResults = gzip.toByteArray();
+
+		surveyResultsSnapshotRepository.save(new SurveyResultsSnapshot(survey, format, gzippedResults));
+		return gzippedResults;
+	}
+
+	/**
+	 * Deletes the snapshots of the results of a survey, waiting for the snapshots
+	 * being taken.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @throws IllegalArgumentException If the survey ID is null.
+	 */
+	@Transactional
+	public void discardSnapshots(Long surveyId) {
+		if (surveyId == null) {
+			throw new IllegalArgumentException("Survey id cannot be null.");
+		}
+		surveyService.findClosedForUpdate(surveyId);
+		surveyResultsSnapshotRepository.deleteBySurveyId(surveyId);
+	}
+
+	/**
+	 * Discards the snapshots of the closed surveys among the surveys whose
+	 * questions or answers are edited in the current transaction, which thus
+	 * commits the edit and the discard together. The surveys cannot be closed
+	 * until the transaction ends.
+	 *
+	 * @param surveyIds The IDs of the edited surveys, the null ones are ignored.
+	 */
+	@Transactional(Transactional.TxType.MANDATORY)
+	public void surveysEdited(Long... surveyIds) {
+		// The surveys are locked in the order of their IDs
+		Set<Long> editedSurveyIds = new TreeSet<Long>();
+		for (Long surveyId : surveyIds) {
+			if (surveyId != null) {
+				editedSurveyIds.add(surveyId);
+			}
+		}
+		for (Long surveyId : editedSurveyIds) {
+			if (surveyService.findClosedForWrite(surveyId).orElse(false)) {
+				discardSnapshots(surveyId);
+			}
+		}
+	}
+
+}
@@ -1,34 +1,67 @@
 package com.example.demo.service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.Answer;
 import com.example.demo.model.AnswerDTO;
+import com.example.demo.model.CachedSurvey;
 import com.example.demo.model.Question;
 import com.example.demo.model.QuestionDTO;
+import com.example.demo.model.QuestionStatsDTO;
 import com.example.demo.model.ResultDTO;
 import com.example.demo.model.Survey;
+import com.example.demo.model.SurveyAnswerRow;
 import com.example.demo.model.SurveyResultDTO;
+import com.example.demo.model.SurveyStatsDTO;
+import com.example.demo.model.SurveySummaryDTO;
+import com.example.demo.model.SurveyTitle;
 import com.example.demo.model.UserResultDTO;
 import com.example.demo.repository.SurveyRepository;
 
+import jakarta.transaction.Transactional;
+
 /**
  * Service class for managing surveys.
+ * <p>
+ * Surveys are read on nearly every request and rarely change, they are kept in
+ * the {@value #SURVEYS_CACHE} cache, keyed by their ID. The cache holds
+ * immutable {@link CachedSurvey} copies, and its writes in a transaction are
+ * only applied once it commits, so it never holds uncommitted or rolled back
+ * values. A write evicts the survey, and an entry read before a change
+ * committed is not served after it (see SurveyVersions).
  */
 @Service
 public class SurveyService {
 
+	public final static String SURVEYS_CACHE = "surveys";
+
 	private final SurveyRepository surveyRepository;
+	private final RatingCounters ratingCounters;
+	private final SurveyVersions surveyVersions;
+	private final SurveyLocks surveyLocks;
+	private final Cache surveysCache;
+	private final Cache questionsBySurveyCache;
 
-	public SurveyService(SurveyRepository surveyRepository) {
+	public SurveyService(SurveyRepository surveyRepository, RatingCounters ratingCounters,
+			SurveyVersions surveyVersions, SurveyLocks surveyLocks, CacheManager cacheManager) {
 		this.surveyRepository = surveyRepository;
+		this.ratingCounters = ratingCounters;
+		this.surveyVersions = surveyVersions;
+		this.surveyLocks = surveyLocks;
+		this.surveysCache = new TransactionAwareCacheDecorator(cacheManager.getCache(SURVEYS_CACHE));
+		this.questionsBySurveyCache = new TransactionAwareCacheDecorator(
+				cacheManager.getCache(QuestionService.QUESTIONS_BY_SURVEY_CACHE));
 	}
 
 	/**
@@ -41,16 +74,73 @@ public class SurveyService {
 	}
 
 	/**
-	 * Retrieves a survey by its ID.
+	 * Retrieves a page of surveys, ordered by ID.
+	 *
+	 * @param after       The ID after which the page starts.
+	 * @param limit       The maximum number of surveys of the page.
+	 * @param titlePrefix The prefix of the titles of the surveys, case sensitive,
+	 *                    or null for all the surveys.
+	 * @return List of the surveys of the page.
+	 */
+	public List<Survey> getSurveysAfter(long after, int limit, String titlePrefix) {
+		return findSurveysAfter(after, limit, titlePrefix, Survey.class);
+	}
+
+	/**
+	 * Retrieves a page of surveys, ordered by ID. Without the description, the
+	 * survey_desc column is not read at all.
+	 *
+	 * @param after           The ID after which the page starts.
+	 * @param limit           The maximum number of surveys of the page.
+	 * @param titlePrefix     The prefix of the titles of the surveys, case
+	 *                        sensitive, or null for all the surveys.
+	 * @param withDescription Whether the descriptions of the surveys are read.
+	 * @return List of the surveys of the page.
+	 */
+	public List<SurveySummaryDTO> getSurveySummariesAfter(long after, int limit, String titlePrefix,
+			boolean withDescription) {
+		List<SurveySummaryDTO> surveySummaryDTOs = new ArrayList<SurveySummaryDTO>(limit);
+		if (withDescription) {
+			for (Survey survey : getSurveysAfter(after, limit, titlePrefix)) {
+				surveySummaryDTOs.add(new SurveySummaryDTO(survey.getId(), survey.getTitle(), survey.getDesc()));
+			}
+		} else {
+			for (SurveyTitle survey : findSurveysAfter(after, limit, titlePrefix, SurveyTitle.class)) {
+				surveySummaryDTOs.add(new SurveySummaryDTO(survey.getId(), survey.getTitle(), null));
+			}
+		}
+		return surveySummaryDTOs;
+	}
+
+	private <T> List<T> findSurveysAfter(long after, int limit, String titlePrefix, Class<T> type) {
+		if (titlePrefix == null) {
+			return surveyRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit), type);
+		}
+		return surveyRepository.findByTitleStartingWithAndIdGreaterThanOrderByIdAsc(titlePrefix, after,
+				Limit.of(limit), type);
+	}
+
+	/**
+	 * Retrieves a survey by its ID, from the cache if it is there.
 	 * 
 	 * @param id The ID of the survey.
-	 * @return Optional containing the survey, or empty if not found.
+	 * @return Optional containing a new copy of the survey, or empty if not
+	 *         found.
 	 */
 	public Optional<Survey> getSurveyById(Long id) {
 		if (id == null) {
 			return Optional.empty();
 		}
-		return surveyRepository.findById(id);
+		// The version is read before the database, so a survey read before a change
+		// committed is cached with an outdated version
+		String version = surveyVersions.versionOf(id);
+		CachedSurvey cachedSurvey = surveyVersions.getIfCurrent(surveysCache, id, version);
+		if (cachedSurvey != null) {
+			return Optional.of(cachedSurvey.toSurvey());
+		}
+		Optional<Survey> survey = surveyRepository.findById(id);
+		survey.ifPresent(foundSurvey -> surveyVersions.put(surveysCache, id, version, CachedSurvey.of(foundSurvey)));
+		return survey;
 	}
 
 	/**
@@ -64,7 +154,74 @@ public class SurveyService {
 		if (survey == null) {
 			throw new IllegalArgumentException("survey cannot be null.");
 		}
-		return surveyRepository.save(survey);
+		Survey savedSurvey = surveyRepository.save(survey);
+		surveysCache.evict(savedSurvey.getId());
+		surveyVersions.surveyChanged(savedSurvey.getId());
+		return savedSurvey;
+	}
+
+	/**
+	 * Tells whether a survey is closed, reading it from the database and not from
+	 * the cache, and takes the shared lock of the survey until the end of the
+	 * current transaction. A transaction writing answers or questions of the
+	 * survey and checking it this way is either committed before the survey is
+	 * closed, or sees it closed, and does not wait for the other writes.
+	 *
+	 * @param id The ID of the survey.
+	 * @return Optional containing true if the survey is closed, or empty if not
+	 *         found.
+	 */
+	@Transactional(Transactional.TxType.MANDATORY)
+	public Optional<Boolean> findClosedForWrite(Long id) {
+		if (id == null) {
+			return Optional.empty();
+		}
+		surveyLocks.lockShared(id);
+		return surveyRepository.findClosedById(id);
+	}
+
+	/**
+	 * Tells whether a survey is closed, reading it from the database and not from
+	 * the cache, and locks the row of the survey until the end of the current
+	 * transaction, e.g. to take or discard the snapshots of its results one at a
+	 * time.
+	 *
+	 * @param id The ID of the survey.
+	 * @return Optional containing true if the survey is closed, or empty if not
+	 *         found.
+	 */
+	@Transactional(Transactional.TxType.MANDATORY)
+	public Optional<Boolean> findClosedForUpdate(Long id) {
+		if (id == null) {
+			return Optional.empty();
+		}
+		return surveyRepository.findClosedForUpdateById(id);
+	}
+
+	/**
+	 * Closes or reopens a survey. The exclusive lock of the survey and its row
+	 * are held until the end of the transaction, so the submissions to it are
+	 * either written before or rejected.
+	 * 
+	 * @param id     The ID of the survey.
+	 * @param closed True to close the survey, false to reopen it.
+	 * @return The saved survey, or null if not found.
+	 */
+	@Transactional
+	public Survey setSurveyClosed(Long id, boolean closed) {
+		if (id == null) {
+			return null;
+		}
+		surveyLocks.lockExclusive(id);
+		if (findClosedForUpdate(id).isEmpty()) {
+			return null;
+		}
+		Survey survey = surveyRepository.findById(id).orElseThrow();
+		survey.setClosed(closed);
+		Survey savedSurvey = surveyRepository.save(survey);
+		surveysCache.evict(id);
+		surveyVersions.surveyChanged(id);
+		return savedSurvey;
 	}
 
 	/**
@@ -78,6 +235,10 @@ public class SurveyService {
 			throw new IllegalArgumentException("id cannot be null.");
 		}
 		surveyRepository.deleteById(id);
+		ratingCounters.surveyCleared(id);
+		surveysCache.evict(id);
+		questionsBySurveyCache.evict(id);
+		surveyVersions.surveyChanged(id);
 	}
 
 	/**
@@ -126,48 +287,100 @@ public class SurveyService {
 	}
 
 	/**
-	 * Transforms survey results into DTOs for users.
+	 * Adds a row of the answers of a survey to the results of its user. The rows
+	 * must be added ordered by user: a row with the same user as the last result
+	 * is appended to its answers, otherwise a new result is started.
+	 *
+	 * @param userResultDTOs The results of the users, ordered by user.
+	 * @param row            The row to add.
+	 */
+	public void addSurveyAnswerRowToDTOForUsers(List<UserResultDTO> userResultDTOs, SurveyAnswerRow row) {
+		UserResultDTO lastUserResultDTO = userResultDTOs.isEmpty() ? null
+				: userResultDTOs.get(userResultDTOs.size() - 1);
+
+		// The users are compared on the two halves of their UUID, a UUID object is only
+		// created for a new user
+		if (lastUserResultDTO == null || !row.isFromUser(lastUserResultDTO.getUserUuid())) {
+			lastUserResultDTO = new UserResultDTO(row.userUuid(), new ArrayList<ResultDTO>());
+			userResultDTOs.add(lastUserResultDTO);
+		}
+
+		lastUserResultDTO.getUserAnswers()
+				.add(new ResultDTO(row.questionId(), row.answerId(), row.questionText(), row.rating()));
+	}
+
+	/**
+	 * Builds the statistics DTO of a survey from the in-memory rating counters of
+	 * its questions.
 	 *
-	 * @param allUserUUIDsMap Map containing user UUIDs and their associated
-	 *                        answers.
-	 * @return List of UserResultDTO representing survey results for users.
+	 * @param survey    The survey.
+	 * @param questions The questions of the survey.
+	 * @return SurveyStatsDTO representing the aggregated ratings of the survey.
 	 */
-	public List<UserResultDTO> transformSurveyResultsToDTOForUsers(Map<UUID, List<Answer>> allUserUUIDsMap) {
+	public SurveyStatsDTO transformRatingCountersToStatsDTO(Survey survey, Iterable<Question> questions) {
 
-		if (allUserUUIDsMap.size() == 0) {
-			return new ArrayList<UserResultDTO>();
+		List<QuestionStatsDTO> questionStatsDTOs = new ArrayList<QuestionStatsDTO>();
+
+		for (Question question : questions) {
+			RatingCounters.Snapshot snapshot = ratingCounters.getSnapshot(question.getId());
+			questionStatsDTOs.add(toQuestionStatsDTO(question.getId(), question.getText(), snapshot.histogram(),
+					snapshot.sum(), snapshot.count()));
 		}
+		questionStatsDTOs.sort(Comparator.comparing(QuestionStatsDTO::getId));
 
-		ArrayList<UserResultDTO> userResultDTOs = new ArrayList<UserResultDTO>();
+		return new SurveyStatsDTO(survey.getId(), survey.getTitle(), questionStatsDTOs);
+	}
 
-		for (UUID userUuid : allUserUUIDsMap.keySet()) {
-			UserResultDTO newUserResultDTO = new UserResultDTO();
-			newUserResultDTO.setUserUuid(userUuid);
+	/**
+	 * Returns the index in a rating histogram of a rating. Ratings outside of the
+	 * accepted range are counted in the closest bucket.
+	 *
+	 * @param rating The rating.
+	 * @return The index of the histogram bucket of the rating.
+	 */
+	static int histogramIndex(int rating) {
+		return Math.min(Answer.MAX_VALUE, Math.max(Answer.MIN_VALUE, rating)) - Answer.MIN_VALUE;
+	}
 
-			for (Answer answer : allUserUUIDsMap.get(userUuid)) {
-				ResultDTO newResultDTO = new ResultDTO();
-				newResultDTO.setIdAnswer(answer.getId());
-				newResultDTO.setAnswerRating(answer.getRating());
-				newResultDTO.setIdQuestion(answer.getQuestion().getId());
-				newResultDTO.setTextQuestion(answer.getQuestion().getText());
+	/**
+	 * Builds the statistics DTO of a question from its rating histogram.
+	 *
+	 * @param questionId   The ID of the question.
+	 * @param questionText The text of the question.
+	 * @param histogram    Number of answers for each rating.
+	 * @param sum          Sum of the ratings.
+	 * @param count        Number of rated answers.
+	 * @return QuestionStatsDTO representing the aggregated ratings of the
+	 *         question.
+	 */
+	static QuestionStatsDTO toQuestionStatsDTO(Long questionId, String questionText, long[] histogram, long sum,
+			long count) {
+		QuestionStatsDTO questionStatsDTO = new QuestionStatsDTO()
+				.id(questionId)
+				.text(questionText)
+				.count(count)
+				.histogram(histogram);
 
-				if (newUserResultDTO.getUserAnswers() == null) {
-					newUserResultDTO.setUserAnswers(new ArrayList<ResultDTO>());
+		if (count > 0) {
+			questionStatsDTO.setMean((double) sum / count);
+			for (int i = 0; i < histogram.length; i++) {
+				if (histogram[i] > 0) {
+					if (questionStatsDTO.getMin() == null) {
+						questionStatsDTO.setMin(i + Answer.MIN_VALUE);
+					}
+					questionStatsDTO.setMax(i + Answer.MIN_VALUE);
 				}
-				newUserResultDTO.getUserAnswers().add(newResultDTO);
 			}
-
-			userResultDTOs.add(newUserResultDTO);
 		}
 
-		return userResultDTOs;
+		return questionStatsDTO;
 	}
 
 	/**
-	 * Finds a survey by its ID.
+	 * Finds a survey by its ID, from the cache if it is there.
 	 *
 	 * @param id The ID of the survey.
-	 * @return The found survey or null if not found.
+	 * @return A new copy of the found survey or null if not found.
 	 */
 	public Survey findSurvey(Long id) {
 		return getSurveyById(id).orElse(null);
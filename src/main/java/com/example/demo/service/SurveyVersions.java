@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory versions of the surveys and of their questions, maintained on
+ * every write so the ETag of a survey can be computed without querying the
+ * database.
+ * 
+ * A version is made of the start time of the application, a generation
+ * increased when any survey may have changed, and the number of changes of the
+ * survey since the start. A restart or a change thus gives ETags that were
+ * never given before. The versions are only increased once the transaction of
+ * the change has committed and the caches have been updated, so an ETag is
+ * never older than the data read after it. The callers thus record a change
+ * after writing it and after updating the caches.
+ * 
+ * The caches keyed by survey ID keep the version of the survey read before the
+ * value was read from the database. A value read before a change committed but
+ * put in the cache after it is thus never served: its version is outdated once
+ * the change is recorded.
+ */
+@Service
+public class SurveyVersions {
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+	private final AtomicLong generation = new AtomicLong();
+	private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<Long, AtomicLong>();
+
+	/**
+	 * Returns the strong ETag of a survey, as sent in the ETag header.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return The ETag of the survey.
+	 */
+	public String eTagOfSurvey(Long surveyId) {
+		return "\"survey-" + surveyId + "-" + versionOf(surveyId) + "\"";
+	}
+
+	/**
+	 * Returns the strong ETag of the questions of a survey, as sent in the ETag
+	 * header.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return The ETag of the questions of the survey.
+	 */
+	public String eTagOfQuestions(Long surveyId) {
+		return "\"questions-" + surveyId + "-" + versionOf(surveyId) + "\"";
+	}
+
+	/**
+	 * Records a change of a survey or of its questions.
+	 *
+	 * @param surveyId The ID of the survey.
+	 */
+	public void surveyChanged(Long surveyId) {
+		if (surveyId == null) {
+			allSurveysChanged();
+			return;
+		}
+		afterCommit(() -> versions.computeIfAbsent(surveyId, id -> new AtomicLong()).incrementAndGet());
+	}
+
+	/**
+	 * Records a change that may concern any survey, e.g. the deletion of a
+	 * question whose survey is not known.
+	 */
+	public void allSurveysChanged() {
+		afterCommit(generation::incrementAndGet);
+	}
+
+	/**
+	 * Returns the current version of a survey.
+	 *
+	 * @param surveyId The ID of the survey.
+	 * @return The version of the survey and of its questions.
+	 */
+	String versionOf(Long surveyId) {
+		AtomicLong version = surveyId == null ? null : versions.get(surveyId);
+		return epoch + "." + generation.get() + "." + (version == null ? 0 : version.get());
+	}
+
+	/**
+	 * Reads the value cached for a survey, if it was read at the given version of
+	 * the survey.
+	 *
+	 * @param cache    The cache, keyed by survey ID.
+	 * @param surveyId The ID of the survey.
+	 * @param version  The current version of the survey, read before the cache.
+	 * @return The cached value, or null if it is missing or outdated.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T getIfCurrent(Cache cache, Long surveyId, String version) {
+		VersionedValue cached = cache.get(surveyId, VersionedValue.class);
+		return cached != null && cached.version().equals(version) ? (T) cached.value() : null;
+	}
+
+	/**
+	 * Caches a value of a survey read from the database.
+	 *
+	 * @param cache    The cache, keyed by survey ID.
+	 * @param surveyId The ID of the survey.
+	 * @param version  The version of the survey read before the database.
+	 * @param value    The value read from the database.
+	 */
+	void put(Cache cache, Long surveyId, String version, Object value) {
+		cache.put(surveyId, new VersionedValue(version, value));
+	}
+
+	/**
+	 * Value of a cache with the version of its survey when it was read.
+	 */
+	private record VersionedValue(String version, Object value) {
+	}
+
+	/**
+	 * Runs an update of the versions once the current transaction has committed,
+	 * or right away if there is no transaction. The update runs on completion,
+	 * after every afterCommit callback, among them the deferred updates of the
+	 * transaction aware caches.
+	 */
+	private static void afterCommit(Runnable update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						update.run();
+					}
+				}
+			});
+		} else {
+			update.run();
+		}
+	}
+
+}
@@ -6,23 +6,26 @@ VALUES
     ('Team Performance Evaluation', 'The Team Performance Evaluation survey gauges the performance and productivity levels of the team. It assesses factors such as productivity, work quality, meeting deadlines, and innovation.');
 
 
-INSERT INTO QUESTION(QUESTION_TEXT, SURVEY_ID) 
+INSERT INTO QUESTION(QUESTION_ID, QUESTION_TEXT, SURVEY_ID) 
 VALUES 
-    ('How satisfied are you with the level of collaboration within your team?', 1),
-    ('How effectively do team members communicate with each other?', 1),
-    ('Rate the level of trust among team members.', 1),
-    ('How well does the team handle conflicts and disagreements?', 1),
-    ('To what extent do team members support each other''s ideas and initiatives?', 1),
-    ('Rate the overall cohesion of your team.', 2),
-    ('How well does the team understand and align with its goals and objectives?', 2),
-    ('Rate the effectiveness of team meetings in addressing issues and making decisions.', 2),
-    ('How well does the team adapt to changes and challenges?', 2),
-    ('Rate the level of accountability among team members.', 2),
-    ('How would you rate the productivity of your team?', 3),
-    ('Rate the quality of work produced by the team.', 3),
-    ('How well does the team meet deadlines and deliverables?', 3),
-    ('Rate the level of innovation and creativity within the team.', 3),
-    ('How satisfied are you with the overall performance of your team?', 3);
+    (1, 'How satisfied are you with the level of collaboration within your team?', 1),
+    (2, 'How effectively do team members communicate with each other?', 1),
+    (3, 'Rate the level of trust among team members.', 1),
+    (4, 'How well does the team handle conflicts and disagreements?', 1),
+    (5, 'To what extent do team members support each other''s ideas and initiatives?', 1),
+    (6, 'Rate the overall cohesion of your team.', 2),
+    (7, 'How well does the team understand and align with its goals and objectives?', 2),
+    (8, 'Rate the effectiveness of team meetings in addressing issues and making decisions.', 2),
+    (9, 'How well does the team adapt to changes and challenges?', 2),
+    (10, 'Rate the level of accountability among team members.', 2),
+    (11, 'How would you rate the productivity of your team?', 3),
+    (12, 'Rate the quality of work produced by the team.', 3),
+    (13, 'How well does the team meet deadlines and deliverables?', 3),
+    (14, 'Rate the level of innovation and creativity within the team.', 3),
+    (15, 'How satisfied are you with the overall performance of your team?', 3);
+
+-- Question ids come from a pooled sequence, we move it after the seeded questions.
+ALTER SEQUENCE QUESTION_SEQ RESTART WITH 16;
 
 
 SET @User1UUID = RANDOM_UUID();
@@ -30,47 +33,57 @@ SET @User2UUID = RANDOM_UUID();
 SET @User3UUID = RANDOM_UUID();
 
 
-INSERT INTO ANSWER(ANSWER_RATING, QUESTION_ID, USER_UUID) 
+INSERT INTO ANSWER(ANSWER_ID, ANSWER_RATING, QUESTION_ID, USER_UUID) 
     VALUES 
     -- User1
-        (4, 1, @User1UUID),
-        (4, 3, @User1UUID),
-        (2, 4, @User1UUID),
-        (5, 5, @User1UUID),
-        (4, 6, @User1UUID),
-        (3, 7, @User1UUID),
-        (5, 8, @User1UUID),
-        (1, 9, @User1UUID),
-        (4, 10, @User1UUID),
-        (2, 11, @User1UUID),
-        (5, 12, @User1UUID),
-        (3, 13, @User1UUID),
-        (4, 14, @User1UUID),
+        (1, 4, 1, @User1UUID),
+        (2, 4, 3, @User1UUID),
+        (3, 2, 4, @User1UUID),
+        (4, 5, 5, @User1UUID),
+        (5, 4, 6, @User1UUID),
+        (6, 3, 7, @User1UUID),
+        (7, 5, 8, @User1UUID),
+        (8, 1, 9, @User1UUID),
+        (9, 4, 10, @User1UUID),
+        (10, 2, 11, @User1UUID),
+        (11, 5, 12, @User1UUID),
+        (12, 3, 13, @User1UUID),
+        (13, 4, 14, @User1UUID),
     -- User2
-        (4, 1, @User2UUID),
-        (1, 3, @User2UUID),
-        (4, 4, @User2UUID),
-        (3, 5, @User2UUID),
-        (2, 6, @User2UUID),
-        (5, 7, @User2UUID),
-        (4, 8, @User2UUID),
-        (2, 9, @User2UUID),
-        (3, 10, @User2UUID),
-        (5, 11, @User2UUID),
-        (1, 12, @User2UUID),
-        (4, 13, @User2UUID),
-        (3, 14, @User2UUID),
+        (14, 4, 1, @User2UUID),
+        (15, 1, 3, @User2UUID),
+        (16, 4, 4, @User2UUID),
+        (17, 3, 5, @User2UUID),
+        (18, 2, 6, @User2UUID),
+        (19, 5, 7, @User2UUID),
+        (20, 4, 8, @User2UUID),
+        (21, 2, 9, @User2UUID),
+        (22, 3, 10, @User2UUID),
+        (23, 5, 11, @User2UUID),
+        (24, 1, 12, @User2UUID),
+        (25, 4, 13, @User2UUID),
+        (26, 3, 14, @User2UUID),
     --User3
-        (3, 3, @User3UUID),
-        (5, 4, @User3UUID),
-        (1, 5, @User3UUID),
-        (4, 6, @User3UUID),
-        (2, 7, @User3UUID),
-        (3, 8, @User3UUID),
-        (5, 9, @User3UUID),
-        (4, 10, @User3UUID),
-        (1, 11, @User3UUID),
-        (3, 12, @User3UUID),
-        (5, 13, @User3UUID),
-        (2, 14, @User3UUID);
+        (27, 3, 3, @User3UUID),
+        (28, 5, 4, @User3UUID),
+        (29, 1, 5, @User3UUID),
+        (30, 4, 6, @User3UUID),
+        (31, 2, 7, @User3UUID),
+        (32, 3, 8, @User3UUID),
+        (33, 5, 9, @User3UUID),
+        (34, 4, 10, @User3UUID),
+        (35, 1, 11, @User3UUID),
+        (36, 3, 12, @User3UUID),
+        (37, 5, 13, @User3UUID),
+        (38, 2, 14, @User3UUID);
+
+-- Answer ids come from a pooled sequence, we move it after the seeded answers.
+ALTER SEQUENCE ANSWER_SEQ RESTART WITH 39;
+
+
 
+-- The completion index is maintained by the application on write, the seeded
+-- answers above have to be indexed by hand.
+INSERT INTO SURVEY_COMPLETION(SURVEY_ID, USER_UUID)
+    SELECT DISTINCT q.SURVEY_ID, a.USER_UUID
+    FROM ANSWER a JOIN QUESTION q ON q.QUESTION_ID = a.QUESTION_ID;
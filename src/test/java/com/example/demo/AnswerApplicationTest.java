@@ -2,15 +2,23 @@
 package com.example.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +26,13 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 
 import com.example.demo.model.Answer;
+import com.example.demo.model.SurveyResultsSnapshot;
+import com.example.demo.model.Submission;
+import com.example.demo.model.UserSubmission;
+import com.example.demo.service.AnswerService;
+import com.example.demo.service.QuestionService;
+import com.example.demo.service.RatingCounters;
+import com.example.demo.service.SurveyResultsSnapshotService;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
@@ -29,6 +44,18 @@ class AnswerApplicationTest {
 	@Autowired
 	TestRestTemplate restTemplate;
 
+	@Autowired
+	RatingCounters ratingCounters;
+
+	@Autowired
+	AnswerService answerService;
+
+	@Autowired
+	QuestionService questionService;
+
+	@Autowired
+	SurveyResultsSnapshotService surveyResultsSnapshotService;
+
 	final String answerBaseUri = "/api/answer";
 	final String emptyIAnswerUri = answerBaseUri + "/";
 	final String notExistingAnswerUri = answerBaseUri + "/99999";
@@ -57,6 +84,7 @@ class AnswerApplicationTest {
 	}
 
 	@Test
+	@DirtiesContext
 	void shouldAcceptToCreateAnAnswerWithNullAsRating() {
 		Answer newAnswer = new Answer(null);
 		UUID newUuid = UUID.randomUUID();
@@ -128,6 +156,95 @@ class AnswerApplicationTest {
 		JSONArray userUuids = documentContext.read("$..userUuid");
 		assertThat(userUuids).containsOnly(uuidUser1, uuidUser2, uuidUser3);
 
+		// The questions are referred to by their ID, not repeated in every answer
+		JSONArray questionIds = documentContext.read("$[*].questionId");
+		assertThat(questionIds).hasSize(23).contains(1, 3, 10);
+		JSONArray questions = documentContext.read("$[*].question");
+		assertThat(questions).isEmpty();
+
+	}
+
+	@Test
+	void shouldReturnAPageOfAnswersWithALinkToTheNextPage() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity(answerBaseUri + "?limit=10", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray ids = documentContext.read("$[*].id");
+		assertThat(ids).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+		String link = response.getHeaders().getFirst(HttpHeaders.LINK);
+		assertThat(link).contains("after=10").contains("limit=10").endsWith("rel=\"next\"");
+	}
+
+	@Test
+	void shouldReturnTheLastPageOfAnswersWithoutLink() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity(answerBaseUri + "?after=20&limit=10", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray ids = documentContext.read("$[*].id");
+		assertThat(ids).containsExactly(21, 22, 23);
+
+		assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).isNull();
+	}
+
+	@Test
+	void shouldStreamAllAnswersAsNewlineDelimitedJson() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity(answerBaseUri + "?format=ndjson", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		String[] lines = response.getBody().split("\n");
+		assertThat(lines).hasSize(23);
+
+		DocumentContext firstAnswer = JsonPath.parse(lines[0]);
+		Number id = firstAnswer.read("$.id");
+		Number rating = firstAnswer.read("$.rating");
+		Number questionId = firstAnswer.read("$.questionId");
+		String userUuid = firstAnswer.read("$.userUuid");
+		assertThat(id).isEqualTo(1);
+		assertThat(rating).isEqualTo(4);
+		assertThat(questionId).isEqualTo(1);
+		assertThat(userUuid).isEqualTo(uuidUser1);
+
+		DocumentContext lastAnswer = JsonPath.parse(lines[22]);
+		Number lastId = lastAnswer.read("$.id");
+		assertThat(lastId).isEqualTo(23);
+	}
+
+	@Test
+	void shouldReturnTheAnswersOfAUserPageByPage() {
+		ResponseEntity<String> firstPage = restTemplate
+				.getForEntity("/api/users/" + uuidUser3 + "/answers?limit=5", String.class);
+		assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext firstPageContext = JsonPath.parse(firstPage.getBody());
+		JSONArray firstPageIds = firstPageContext.read("$[*].id");
+		assertThat(firstPageIds).containsExactly(16, 17, 18, 19, 20);
+		JSONArray firstPageUserUuids = firstPageContext.read("$[*].userUuid");
+		assertThat(firstPageUserUuids).containsOnly(uuidUser3);
+		assertThat(firstPage.getHeaders().getFirst(HttpHeaders.LINK)).contains("after=20");
+
+		ResponseEntity<String> secondPage = restTemplate
+				.getForEntity("/api/users/" + uuidUser3 + "/answers?after=20&limit=5", String.class);
+		DocumentContext secondPageContext = JsonPath.parse(secondPage.getBody());
+		JSONArray secondPageIds = secondPageContext.read("$[*].id");
+		assertThat(secondPageIds).containsExactly(21, 22, 23);
+		assertThat(secondPage.getHeaders().getFirst(HttpHeaders.LINK)).isNull();
+	}
+
+	@Test
+	void shouldReturnNoAnswersForAnUnknownUser() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/users/00000000-0000-0000-0000-000000000099/answers", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		int answerCount = documentContext.read("$.length()");
+		assertThat(answerCount).isEqualTo(0);
 	}
 
 	@Test
@@ -320,6 +437,323 @@ class AnswerApplicationTest {
 
 	}
 
+	@Test
+	void shouldReturnTheResultsOfASurveyOrderedByUserAndQuestion() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/2/results", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray userUuids = documentContext.read("$[*].userUuid");
+		assertThat(userUuids).containsExactly(uuidUser1, uuidUser2, uuidUser3);
+
+		JSONArray secondUserIdQuestions = documentContext.read("$[1].userAnswers[*].idQuestion");
+		assertThat(secondUserIdQuestions).containsExactly(4, 5, 6, 7, 8);
+		JSONArray secondUserTextQuestions = documentContext.read("$[1].userAnswers[*].textQuestion");
+		assertThat(secondUserTextQuestions).containsExactly("Question 2.1", "Question 2.2", "Question 2.3",
+				"Question 2.4", "Question 2.5");
+		JSONArray secondUserRatings = documentContext.read("$[1].userAnswers[*].answerRating");
+		assertThat(secondUserRatings).containsExactly(4, 3, 2, 5, 4);
+	}
+
+	@Test
+	void shouldNotReturnTheResultsOfASurveyThatDoesNotExist() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/99999/results", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+	@Test
+	void shouldStreamTheSameResultsByUserAsTheNonStreamedEndpoint() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/2/results", String.class);
+		ResponseEntity<String> streamedResponse = restTemplate
+				.getForEntity("/api/surveys/2/results?stream=true", String.class);
+		assertThat(streamedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		Object results = JsonPath.parse(response.getBody()).read("$");
+		Object streamedResults = JsonPath.parse(streamedResponse.getBody()).read("$");
+		assertThat(streamedResults).isEqualTo(results);
+	}
+
+	@Test
+	void shouldStreamTheFullResultsOfASurvey() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/1/results/full?stream=true", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		Number surveyId = documentContext.read("$.id");
+		String title = documentContext.read("$.title");
+		assertThat(surveyId).isEqualTo(1);
+		assertThat(title).isEqualTo("Example Survey 1");
+
+		JSONArray questionIds = documentContext.read("$.questions[*].id");
+		assertThat(questionIds).containsExactly(1, 2, 3);
+
+		JSONArray firstQuestionAnswerIds = documentContext.read("$.questions[0].answers[*].id");
+		assertThat(firstQuestionAnswerIds).containsExactly(1, 9);
+		JSONArray firstQuestionUserUuids = documentContext.read("$.questions[0].answers[*].userUuid");
+		assertThat(firstQuestionUserUuids).containsExactly(uuidUser1, uuidUser2);
+
+		// Question 2 was never answered
+		int secondQuestionAnswerCount = documentContext.read("$.questions[1].answers.length()");
+		assertThat(secondQuestionAnswerCount).isEqualTo(0);
+
+		JSONArray thirdQuestionRatings = documentContext.read("$.questions[2].answers[*].rating");
+		assertThat(thirdQuestionRatings).containsExactly(4, 1, 3);
+	}
+
+	@Test
+	void shouldNotStreamTheResultsOfASurveyThatDoesNotExist() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/99999/results?stream=true", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+		response = restTemplate.getForEntity("/api/surveys/99999/results/full?stream=true", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+	@Test
+	void shouldReturnTheCompactResultsOfASurvey() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/2/results?format=compact", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		Number surveyId = documentContext.read("$.surveyId");
+		assertThat(surveyId).isEqualTo(2);
+
+		// The questions are written once
+		JSONArray questionIds = documentContext.read("$.questions[*].id");
+		assertThat(questionIds).containsExactly(4, 5, 6, 7, 8);
+		JSONArray questionTexts = documentContext.read("$.questions[*].text");
+		assertThat(questionTexts).containsExactly("Question 2.1", "Question 2.2", "Question 2.3", "Question 2.4",
+				"Question 2.5");
+
+		JSONArray userUuids = documentContext.read("$.users[*].userUuid");
+		assertThat(userUuids).containsExactly(uuidUser1, uuidUser2, uuidUser3);
+
+		// The ratings are indexed by the position of the questions, the first user did
+		// not answer the fourth question
+		JSONArray firstUserRatings = documentContext.read("$.users[0].ratings");
+		assertThat(firstUserRatings).containsExactly(2, 5, 4, null, 5);
+		JSONArray secondUserRatings = documentContext.read("$.users[1].ratings");
+		assertThat(secondUserRatings).containsExactly(4, 3, 2, 5, 4);
+
+		// The same results with the question texts repeated for every answer are
+		// larger
+		ResponseEntity<String> fullResponse = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+		assertThat(response.getBody().length()).isLessThan(fullResponse.getBody().length() / 2);
+	}
+
+	@Test
+	void shouldNotReturnTheCompactResultsOfASurveyThatDoesNotExist() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/99999/results?format=compact", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldServeTheResultsOfAClosedSurveyFromACompressedSnapshot() throws IOException {
+		ResponseEntity<String> fullResponse = restTemplate.getForEntity("/api/surveys/2/results/full", String.class);
+		ResponseEntity<String> byUserResponse = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+
+		ResponseEntity<String> closeResponse = restTemplate.postForEntity("/api/surveys/2/close", null, String.class);
+		assertThat(closeResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		boolean closed = JsonPath.parse(closeResponse.getBody()).read("$.closed");
+		assertThat(closed).isTrue();
+
+		// The snapshot is sent as it is stored to a client accepting gzip
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		ResponseEntity<byte[]> compressedResponse = restTemplate.exchange("/api/surveys/2/results/full",
+				HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+		assertThat(compressedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(compressedResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(compressedResponse.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+
+		Object results = JsonPath.parse(fullResponse.getBody()).read("$");
+		Object snapshotResults = JsonPath.parse(gunzip(compressedResponse.getBody())).read("$");
+		assertThat(snapshotResults).isEqualTo(results);
+
+		// And decompressed for the others
+		ResponseEntity<String> plainResponse = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+		assertThat(plainResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(plainResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+		results = JsonPath.parse(byUserResponse.getBody()).read("$");
+		snapshotResults = JsonPath.parse(plainResponse.getBody()).read("$");
+		assertThat(snapshotResults).isEqualTo(results);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldTakeTheSnapshotOfAClosedSurveyAgainAfterAnEdit() {
+		ResponseEntity<String> closeResponse = restTemplate.postForEntity("/api/surveys/2/close", null, String.class);
+		assertThat(closeResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		restTemplate.getForEntity("/api/surveys/2/results", String.class);
+
+		// Answer 3 is the rating of the first user to question 4, the first of survey 2
+		restTemplate.delete(answerBaseUri + "/3");
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		JSONArray firstUserIdQuestions = JsonPath.parse(response.getBody()).read("$[0].userAnswers[*].idQuestion");
+		assertThat(firstUserIdQuestions).containsExactly(5, 6, 8);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldDiscardTheSnapshotsOfBothSurveysOfAnAnswerMovedBetweenClosedSurveys() {
+		for (long surveyId = 1; surveyId <= 2; surveyId++) {
+			ResponseEntity<String> closeResponse = restTemplate.postForEntity("/api/surveys/" + surveyId + "/close",
+					null, String.class);
+			assertThat(closeResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(surveyResultsSnapshotService.findSnapshot(surveyId, SurveyResultsSnapshot.Format.BY_USER))
+					.isPresent();
+		}
+
+		// Answer 1 (question 1 of survey 1) moves to question 7 of survey 2, the
+		// snapshots are discarded when the move commits
+		answerService.saveAnswer(new Answer(1L, 4, questionService.findQuestion(7L), UUID.fromString(uuidUser1)));
+		assertThat(surveyResultsSnapshotService.findSnapshot(1L, SurveyResultsSnapshot.Format.BY_USER)).isEmpty();
+		assertThat(surveyResultsSnapshotService.findSnapshot(2L, SurveyResultsSnapshot.Format.BY_USER)).isEmpty();
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+		JSONArray firstUserIdQuestions = JsonPath.parse(response.getBody()).read("$[0].userAnswers[*].idQuestion");
+		assertThat(firstUserIdQuestions).containsExactly(4, 5, 6, 7, 8);
+	}
+
+	@Test
+	void shouldReturnTheStatisticsOfAnExistingSurvey() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/1/results/stats", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		Number surveyId = documentContext.read("$.id");
+		assertThat(surveyId).isEqualTo(1);
+
+		JSONArray questionIds = documentContext.read("$.questions[*].id");
+		assertThat(questionIds).containsExactly(1, 2, 3);
+
+		// Question 1 was rated 4 by users 1 and 2
+		Number firstCount = documentContext.read("$.questions[0].count");
+		Number firstMin = documentContext.read("$.questions[0].min");
+		Number firstMax = documentContext.read("$.questions[0].max");
+		JSONArray firstHistogram = documentContext.read("$.questions[0].histogram");
+		assertThat(firstCount).isEqualTo(2);
+		assertThat(firstMin).isEqualTo(4);
+		assertThat(firstMax).isEqualTo(4);
+		assertThat(firstHistogram).containsExactly(0, 0, 0, 2, 0);
+
+		// Question 2 was never answered
+		Number secondCount = documentContext.read("$.questions[1].count");
+		Object secondMean = documentContext.read("$.questions[1].mean");
+		assertThat(secondCount).isEqualTo(0);
+		assertThat(secondMean).isNull();
+
+		// Question 3 was rated 4, 1 and 3
+		Number thirdCount = documentContext.read("$.questions[2].count");
+		Number thirdMean = documentContext.read("$.questions[2].mean");
+		Number thirdMin = documentContext.read("$.questions[2].min");
+		Number thirdMax = documentContext.read("$.questions[2].max");
+		JSONArray thirdHistogram = documentContext.read("$.questions[2].histogram");
+		assertThat(thirdCount).isEqualTo(3);
+		assertThat(thirdMean.doubleValue()).isCloseTo(8.0 / 3, within(1e-9));
+		assertThat(thirdMin).isEqualTo(1);
+		assertThat(thirdMax).isEqualTo(4);
+		assertThat(thirdHistogram).containsExactly(1, 0, 1, 1, 0);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldKeepTheStatisticsUpToDateWhenAnswersChange() {
+		// New answer to question 2
+		Answer newAnswer = new Answer(5);
+		newAnswer.setUserUuId(UUID.randomUUID());
+		ResponseEntity<Void> createResponse = restTemplate
+				.postForEntity("/api/question/2/answer", newAnswer, Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		// Answer 1 (question 1) goes from 4 to 1
+		Answer updatedAnswer = new Answer(1);
+		updatedAnswer.setUserUuId(UUID.fromString(uuidUser1));
+		ResponseEntity<Void> updateResponse = restTemplate.exchange(existingAnswerUri,
+				HttpMethod.PUT, new HttpEntity<>(updatedAnswer), Void.class);
+		assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+		// Answer 2 (question 3, rating 4) is deleted
+		ResponseEntity<Void> deleteResponse = restTemplate.exchange(answerBaseUri + "/2",
+				HttpMethod.DELETE, null, Void.class);
+		assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+		assertThat(ratingCounters.findInconsistencies()).isEmpty();
+		ResponseEntity<String> checkResponse = restTemplate.getForEntity("/api/monitoring/rating-counters",
+				String.class);
+		assertThat(checkResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		int inconsistencyCount = JsonPath.parse(checkResponse.getBody()).read("$.length()");
+		assertThat(inconsistencyCount).isEqualTo(0);
+
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/1/results/stats", String.class);
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray firstHistogram = documentContext.read("$.questions[0].histogram");
+		JSONArray secondHistogram = documentContext.read("$.questions[1].histogram");
+		JSONArray thirdHistogram = documentContext.read("$.questions[2].histogram");
+		assertThat(firstHistogram).containsExactly(1, 0, 0, 1, 0);
+		assertThat(secondHistogram).containsExactly(0, 0, 0, 0, 1);
+		assertThat(thirdHistogram).containsExactly(1, 0, 1, 0, 0);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldMoveTheRatingOfAnAnswerMovedToAnotherQuestion() {
+		// Answer 1 (question 1, rating 4) moves to question 3
+		answerService.saveAnswer(new Answer(1L, 4, questionService.findQuestion(3L), UUID.fromString(uuidUser1)));
+
+		assertThat(ratingCounters.findInconsistencies()).isEmpty();
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/1/results/stats", String.class);
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray firstHistogram = documentContext.read("$.questions[0].histogram");
+		JSONArray thirdHistogram = documentContext.read("$.questions[2].histogram");
+		Number thirdCount = documentContext.read("$.questions[2].count");
+		assertThat(firstHistogram).containsExactly(0, 0, 0, 1, 0);
+		assertThat(thirdHistogram).containsExactly(1, 0, 1, 2, 0);
+		assertThat(thirdCount).isEqualTo(4);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldWriteAnOutOfRangeRatingAsTheNearestBound() {
+		UserSubmission userSubmission = new UserSubmission(UUID.fromString("00000000-0000-0000-0000-000000000004"),
+				List.of(new Submission(2L, 9)));
+		ResponseEntity<Void> submitResponse = restTemplate.postForEntity("/api/surveys/1/submit", userSubmission,
+				Void.class);
+		assertThat(submitResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		assertThat(ratingCounters.findInconsistencies()).isEmpty();
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/1/results/stats", String.class);
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		Number secondMean = documentContext.read("$.questions[1].mean");
+		Number secondMax = documentContext.read("$.questions[1].max");
+		JSONArray secondHistogram = documentContext.read("$.questions[1].histogram");
+		assertThat(secondMean.doubleValue()).isCloseTo(5.0, within(1e-9));
+		assertThat(secondMax).isEqualTo(5);
+		assertThat(secondHistogram).containsExactly(0, 0, 0, 0, 1);
+	}
+
+	@Test
+	void shouldNotReturnTheStatisticsOfASurveyThatDoesNotExist() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/99999/results/stats", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
 	@Test
 	void shouldNotReturnAnswersOfAQuestionThatDoesNotExist() {
 		ResponseEntity<String> response = restTemplate
@@ -346,4 +780,10 @@ class AnswerApplicationTest {
 
 	}
 
-}
\ No newline at end of file
+	private static String gunzip(byte[] gzip) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
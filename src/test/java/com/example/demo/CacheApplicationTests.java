@@ -0,0 +1,224 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.Question;
+import com.example.demo.model.Survey;
+import com.example.demo.service.SurveyService;
+import com.example.demo.service.SurveyVersions;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import net.minidev.json.JSONArray;
+
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CacheApplicationTests {
+	@Autowired
+	TestRestTemplate restTemplate;
+	@Autowired
+	SurveyService surveyService;
+	@Autowired
+	SurveyVersions surveyVersions;
+	@Autowired
+	TransactionTemplate transactionTemplate;
+	@Autowired
+	CacheManager cacheManager;
+
+	final String cacheStatsUri = "/api/monitoring/caches";
+
+	@Test
+	void shouldServeARepeatedSurveyLookupFromTheCache() {
+		int hitsBefore = readHitCount("surveys");
+
+		restTemplate.getForEntity("/api/surveys/1", String.class);
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/1", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		assertThat(readHitCount("surveys")).isGreaterThan(hitsBefore);
+	}
+
+	@Test
+	void shouldNotLetTheCallersModifyTheCachedSurveys() {
+		Survey survey = surveyService.findSurvey(1L);
+		String title = survey.getTitle();
+		survey.setTitle("Modified outside of a transaction");
+
+		assertThat(surveyService.findSurvey(1L).getTitle()).isEqualTo(title);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotCacheTheChangesOfARolledBackTransaction() {
+		String title = surveyService.findSurvey(2L).getTitle();
+		String eTag = surveyVersions.eTagOfSurvey(2L);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Survey survey = surveyService.findSurvey(2L);
+			survey.setTitle("Rolled back");
+			surveyService.saveSurvey(survey);
+			status.setRollbackOnly();
+		});
+
+		assertThat(surveyService.findSurvey(2L).getTitle()).isEqualTo(title);
+		assertThat(surveyVersions.eTagOfSurvey(2L)).isEqualTo(eTag);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldChangeTheETagOfASurveyOnlyOnceTheChangedSurveyIsCached() {
+		String eTag = surveyVersions.eTagOfSurvey(2L);
+		AtomicReference<String> titleAfterCommit = new AtomicReference<String>();
+		AtomicReference<String> eTagAfterCommit = new AtomicReference<String>();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Survey survey = surveyService.findSurvey(2L);
+			survey.setTitle("Changed");
+			surveyService.saveSurvey(survey);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					titleAfterCommit.set(surveyService.findSurvey(2L).getTitle());
+					eTagAfterCommit.set(surveyVersions.eTagOfSurvey(2L));
+				}
+			});
+		});
+
+		// Once committed, the cache has no stale survey before the ETag changes
+		assertThat(titleAfterCommit.get()).isEqualTo("Changed");
+		assertThat(eTagAfterCommit.get()).isEqualTo(eTag);
+		assertThat(surveyVersions.eTagOfSurvey(2L)).isNotEqualTo(eTag);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotServeASurveyReadBeforeAChangeCommittedAndCachedAfterIt() throws Exception {
+		Survey survey = surveyService.findSurvey(2L);
+		String title = survey.getTitle();
+		cacheManager.getCache(SurveyService.SURVEYS_CACHE).evict(2L);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch read = new CountDownLatch(1);
+		CountDownLatch committed = new CountDownLatch(1);
+		try {
+			Future<String> staleRead = transactionTemplate.execute(status -> {
+				survey.setTitle("Changed");
+				surveyService.saveSurvey(survey);
+
+				// Another transaction reads the survey before the change commits, and
+				// caches it once the change has committed
+				Future<String> otherRead = executor.submit(() -> transactionTemplate.execute(otherStatus -> {
+					String readTitle = surveyService.findSurvey(2L).getTitle();
+					read.countDown();
+					try {
+						committed.await(60, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return readTitle;
+				}));
+				try {
+					assertThat(read.await(60, TimeUnit.SECONDS)).isTrue();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return otherRead;
+			});
+			committed.countDown();
+			assertThat(staleRead.get(60, TimeUnit.SECONDS)).isEqualTo(title);
+		} finally {
+			committed.countDown();
+			executor.shutdownNow();
+		}
+
+		assertThat(surveyService.findSurvey(2L).getTitle()).isEqualTo("Changed");
+	}
+
+	@Test
+	void shouldExposeTheCountersOfEveryCache() {
+		ResponseEntity<String> response = restTemplate.getForEntity(cacheStatsUri, String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray names = documentContext.read("$[*].name");
+		assertThat(names).containsExactly("questionsBySurvey", "surveys");
+		JSONArray missCounts = documentContext.read("$[*].missCount");
+		assertThat(missCounts).hasSize(2);
+		JSONArray evictionCounts = documentContext.read("$[*].evictionCount");
+		assertThat(evictionCounts).hasSize(2);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldReturnTheUpToDateQuestionsOfASurveyAfterTheyChange() {
+		String url = "/api/surveys/1/question";
+		assertThat(countQuestions(url)).isEqualTo(3);
+
+		ResponseEntity<Void> createResponse = restTemplate
+				.postForEntity(url, new Question("Is this question cached?"), Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(countQuestions(url)).isEqualTo(4);
+
+		URI locationOfNewQuestion = createResponse.getHeaders().getLocation();
+		restTemplate.exchange(locationOfNewQuestion, HttpMethod.PUT,
+				new HttpEntity<>(new Question("Is this question still cached?")), Void.class);
+		DocumentContext documentContext = JsonPath.parse(restTemplate.getForEntity(url, String.class).getBody());
+		JSONArray texts = documentContext.read("$[*].text");
+		assertThat(texts).contains("Is this question still cached?");
+		assertThat(texts).doesNotContain("Is this question cached?");
+
+		restTemplate.delete(locationOfNewQuestion);
+		assertThat(countQuestions(url)).isEqualTo(3);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotReturnASurveyAfterItWasDeleted() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/3", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		restTemplate.delete("/api/surveys/3");
+
+		response = restTemplate.getForEntity("/api/surveys/3", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+		response = restTemplate.getForEntity("/api/surveys/3/question", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+	private int countQuestions(String url) {
+		ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		return JsonPath.parse(response.getBody()).read("$.length()");
+	}
+
+	private int readHitCount(String cacheName) {
+		ResponseEntity<String> response = restTemplate.getForEntity(cacheStatsUri, String.class);
+		JSONArray hitCounts = JsonPath.parse(response.getBody())
+				.read("$[?(@.name == '" + cacheName + "')].hitCount");
+		return ((Number) hitCounts.get(0)).intValue();
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.service.ExportService;
+
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ExportApplicationTests {
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	final String exportUri = "/api/surveys/1/results/export";
+
+	@Test
+	void shouldExportTheAnswersOfASurveyAsCsv() {
+		ResponseEntity<String> response = restTemplate.getForEntity(exportUri + "?format=csv", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType().toString()).startsWith("text/csv");
+
+		// Ordered by question, then by answer: answers 1 and 9 to question 1, answers
+		// 2, 10 and 16 to question 3
+		assertThat(response.getBody().split("\n")).containsExactly(
+				"question_id,user_uuid_msb,user_uuid_lsb,rating",
+				"1,0,1,4",
+				"1,0,2,4",
+				"3,0,1,4",
+				"3,0,2,1",
+				"3,0,3,3");
+	}
+
+	@Test
+	void shouldExportTheAnswersOfASurveyInColumns() throws IOException {
+		ResponseEntity<byte[]> response = restTemplate.getForEntity(exportUri + "?format=columnar", byte[].class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(response.getBody()));
+		byte[] magic = new byte[4];
+		in.readFully(magic);
+		assertThat(magic).isEqualTo(ExportService.COLUMNAR_MAGIC);
+		assertThat(in.readByte()).isEqualTo((byte) ExportService.COLUMNAR_VERSION);
+		assertThat(in.readLong()).isEqualTo(1L);
+
+		// Users ordered by UUID: their answers to questions 1 and 3, 1 and 3, then 3,
+		// as zigzag deltas from the previous question of the user, and their ratings
+		// 4 and 4, 4 and 1, then 3 on 3 bits padded to a byte
+		long[] userUuidLsbs = { 1, 2, 3 };
+		byte[][] questionDeltas = { { 2, 4 }, { 2, 4 }, { 6 } };
+		byte[] ratings = { (byte) 0b10010000, (byte) 0b10000100, (byte) 0b01100000 };
+		for (int user = 0; user < userUuidLsbs.length; user++) {
+			assertThat(in.readByte()).isEqualTo((byte) questionDeltas[user].length);
+			assertThat(in.readLong()).isEqualTo(0L);
+			assertThat(in.readLong()).isEqualTo(userUuidLsbs[user]);
+			byte[] deltas = new byte[questionDeltas[user].length];
+			in.readFully(deltas);
+			assertThat(deltas).isEqualTo(questionDeltas[user]);
+			assertThat(in.readByte()).isEqualTo(ratings[user]);
+		}
+
+		assertThat(in.readByte()).isEqualTo((byte) 0); // end
+		assertThat(in.readByte()).isEqualTo((byte) 3); // users
+		assertThat(in.readByte()).isEqualTo((byte) 5); // answers
+		assertThat(in.available()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldRejectAnUnknownExportFormat() {
+		ResponseEntity<String> response = restTemplate.getForEntity(exportUri + "?format=xml", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void shouldNotExportTheAnswersOfASurveyThatDoesNotExist() {
+		ResponseEntity<String> response = restTemplate
+				.getForEntity("/api/surveys/99999/results/export?format=csv", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import net.minidev.json.JSONArray;
+
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsApplicationTests {
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	final String metricsUri = "/actuator/metrics/";
+
+	@Test
+	void shouldTimeTheRequestsOfAnEndpoint() {
+		restTemplate.getForEntity("/api/surveys/1", String.class);
+		restTemplate.getForEntity("/api/surveys/9999", String.class);
+
+		// The URI templates are given as variables, so their braces are encoded
+		double count = readCount("http.server.requests?tag=uri:{uri}", "/api/surveys/{surveyId}");
+		assertThat(count).isGreaterThanOrEqualTo(2);
+
+		// The unknown survey is counted with its status
+		double noContentCount = readCount("http.server.requests?tag=uri:{uri}&tag=status:204",
+				"/api/surveys/{surveyId}");
+		assertThat(noContentCount).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void shouldPublishThePercentilesOfTheRequests() {
+		restTemplate.getForEntity("/api/surveys/1/results", String.class);
+
+		ResponseEntity<String> response = restTemplate.getForEntity(
+				metricsUri + "http.server.requests.percentile?tag=uri:{uri}&tag=phi:0.99", String.class,
+				"/api/surveys/{surveyId}/results");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray values = documentContext.read("$.measurements[?(@.statistic == 'VALUE')].value");
+		assertThat(values).hasSize(1);
+	}
+
+	@Test
+	void shouldCountTheQueriesOfTheRepositories() {
+		restTemplate.getForEntity("/api/question", String.class);
+		restTemplate.getForEntity("/api/surveys/1/results", String.class);
+
+		assertThat(readCount("spring.data.repository.invocations?tag=repository:QuestionRepository&tag=method:findAll"))
+				.isGreaterThanOrEqualTo(1);
+		assertThat(readCount(
+				"spring.data.repository.invocations?tag=repository:AnswerJdbcRepository&tag=method:forEachAnswerOfSurvey"))
+				.isGreaterThanOrEqualTo(1);
+	}
+
+	private double readCount(String metric, Object... uriVariables) {
+		ResponseEntity<String> response = restTemplate.getForEntity(metricsUri + metric, String.class, uriVariables);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray counts = documentContext.read("$.measurements[?(@.statistic == 'COUNT')].value");
+		return ((Number) counts.get(0)).doubleValue();
+	}
+
+}
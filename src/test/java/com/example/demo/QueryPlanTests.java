@@ -0,0 +1,80 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Checks that H2 answers the lookups of the services with the indexes declared
+ * on the entities and not with a scan of the whole table. The names are
+ * checked, since the indexes H2 creates for the foreign keys would also avoid a
+ * scan.
+ */
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class QueryPlanTests {
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	final String uuidUser1 = "'00000000-0000-0000-0000-000000000001'";
+
+	String explain(String query) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+	}
+
+	/**
+	 * Asserts that the plan reads one of the given indexes, which have the same
+	 * cost for the query.
+	 */
+	void assertUsesIndex(String plan, String... indexNames) {
+		assertThat(plan).doesNotContain("tableScan").containsAnyOf(indexNames);
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheAnswersOfAQuestion() {
+		String plan = explain("SELECT * FROM ANSWER WHERE question_id = 1");
+		assertUsesIndex(plan, "IDX_ANSWER_QUESTION_USER");
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheAnswerOfAUserToAQuestion() {
+		String plan = explain("SELECT * FROM ANSWER WHERE user_uuid = " + uuidUser1 + " AND question_id = 1");
+		assertUsesIndex(plan, "IDX_ANSWER_QUESTION_USER", "IDX_ANSWER_USER_QUESTION");
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheAnswersOfAUser() {
+		String plan = explain("SELECT * FROM ANSWER WHERE user_uuid = " + uuidUser1);
+		assertUsesIndex(plan, "IDX_ANSWER_USER_QUESTION");
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheQuestionsOfASurvey() {
+		String plan = explain("SELECT * FROM QUESTION WHERE survey_id = 1");
+		assertUsesIndex(plan, "IDX_QUESTION_SURVEY");
+	}
+
+	@Test
+	void shouldUseAnIndexToCheckIfAUserCompletedASurvey() {
+		String plan = explain("SELECT * FROM SURVEY_COMPLETION WHERE survey_id = 1 AND user_uuid = " + uuidUser1);
+		// H2 names the index of the unique constraint after it
+		assertUsesIndex(plan, "UK_SURVEY_COMPLETION_SURVEY_USER", "IDX_SURVEY_COMPLETION_USER_SURVEY");
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheSurveysCompletedByAUser() {
+		String plan = explain("SELECT survey_id FROM SURVEY_COMPLETION WHERE user_uuid = " + uuidUser1);
+		assertUsesIndex(plan, "IDX_SURVEY_COMPLETION_USER_SURVEY");
+	}
+
+	@Test
+	void shouldUseAnIndexToFindTheSurveysByTitlePrefix() {
+		String plan = explain("SELECT survey_id, survey_title FROM SURVEY WHERE survey_title LIKE 'Example%'");
+		assertUsesIndex(plan, "IDX_SURVEY_TITLE");
+	}
+
+}
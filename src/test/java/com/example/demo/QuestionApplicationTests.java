@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -207,6 +208,33 @@ class QuestionApplicationTests {
 		// We check that the surveys containing the questions are the correct ones
 		JSONArray surveyIds = documentContext.read("$[*].survey.id");
 		assertThat(surveyIds).containsOnly(1);
+
+		// The survey is only referred to by its ID
+		JSONArray surveyDescs = documentContext.read("$[*].survey.desc");
+		assertThat(surveyDescs).isEmpty();
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldSendTheQuestionsOfASurveyAgainOnlyOnceChanged() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/1/question", String.class);
+		String eTag = response.getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<String> unchangedResponse = restTemplate.exchange("/api/surveys/1/question", HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+		assertThat(unchangedResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		restTemplate.postForEntity("/api/surveys/1/question", new Question("Is this a new question?"), Void.class);
+
+		ResponseEntity<String> changedResponse = restTemplate.exchange("/api/surveys/1/question", HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+		assertThat(changedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(changedResponse.getHeaders().getETag()).isNotEqualTo(eTag);
+		int questionCount = JsonPath.parse(changedResponse.getBody()).read("$.length()");
+		assertThat(questionCount).isEqualTo(4);
 	}
 
 	@Test
@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.monitoring.StatementCounter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Assertions on the number of SQL statements executed by a request, read from
+ * the {@value StatementCounter#STATEMENTS_METRIC} metric of the application
+ * under test. The tests run with {@value StatementCounter#ENABLED_PROPERTY}
+ * set, see application-test.properties.
+ */
+final class StatementCountAssertions {
+
+	private static final long RECORD_TIMEOUT_NANOSECONDS = TimeUnit.SECONDS.toNanos(5);
+
+	private StatementCountAssertions() {
+	}
+
+	/**
+	 * Sends a request and checks the number of statements it executed. The count
+	 * of a request is recorded once the server is done with it, possibly after the
+	 * client read the response, so it is waited for.
+	 *
+	 * @param meterRegistry The registry of the application.
+	 * @param method        The HTTP method of the endpoint.
+	 * @param uri           The URI template of the endpoint, e.g.
+	 *                      /api/surveys/{surveyId}/results/full.
+	 * @param maxStatements The maximum number of statements expected.
+	 * @param request       Sends the request to the endpoint.
+	 * @return The number of statements executed.
+	 */
+	static long assertStatementsAtMost(MeterRegistry meterRegistry, String method, String uri,
+			long maxStatements, Runnable request) {
+		DistributionSummary before = find(meterRegistry, method, uri);
+		long requestsBefore = before == null ? 0 : before.count();
+		double statementsBefore = before == null ? 0 : before.totalAmount();
+
+		request.run();
+
+		DistributionSummary after = awaitRecorded(meterRegistry, method, uri, requestsBefore + 1);
+		assertThat(after).as("statements recorded for %s %s", method, uri).isNotNull();
+		assertThat(after.count()).isEqualTo(requestsBefore + 1);
+
+		long statements = (long) (after.totalAmount() - statementsBefore);
+		assertThat(statements).as("statements executed by %s %s", method, uri).isLessThanOrEqualTo(maxStatements);
+		return statements;
+	}
+
+	private static DistributionSummary awaitRecorded(MeterRegistry meterRegistry, String method, String uri,
+			long requests) {
+		long deadline = System.nanoTime() + RECORD_TIMEOUT_NANOSECONDS;
+		DistributionSummary summary = find(meterRegistry, method, uri);
+		while ((summary == null || summary.count() < requests) && System.nanoTime() < deadline) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			summary = find(meterRegistry, method, uri);
+		}
+		return summary;
+	}
+
+	private static DistributionSummary find(MeterRegistry meterRegistry, String method, String uri) {
+		return meterRegistry.find(StatementCounter.STATEMENTS_METRIC)
+				.tag("method", method)
+				.tag("uri", uri)
+				.summary();
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.example.demo;
+
+import static com.example.demo.StatementCountAssertions.assertStatementsAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.monitoring.StatementCounter;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.minidev.json.JSONArray;
+
+@TestPropertySource(locations = "classpath:application-test.properties")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class StatementCountTests {
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@Autowired
+	StatementCounter statementCounter;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void shouldReadTheFullResultsOfASurveyWithAFewStatements() {
+		assertStatementsAtMost(meterRegistry, "GET", "/api/surveys/{surveyId}/results/full", 3, () -> {
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/2/results/full", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		});
+	}
+
+	@Test
+	void shouldReadTheAnswersOfASurveyWithAFewStatements() {
+		assertStatementsAtMost(meterRegistry, "GET", "/api/surveys/{surveyId}/answer", 3, () -> {
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/2/answer", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		});
+	}
+
+	@Test
+	void shouldReadTheResultsOfASurveyByUserWithAFewStatements() {
+		assertStatementsAtMost(meterRegistry, "GET", "/api/surveys/{surveyId}/results", 2, () -> {
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/surveys/2/results", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		});
+	}
+
+	@Test
+	void shouldListTheAnswersWithoutReadingTheirQuestions() {
+		assertStatementsAtMost(meterRegistry, "GET", "/api/answer", 1, () -> {
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/answer?limit=20", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		});
+	}
+
+	@Test
+	void shouldReadAnAnswerWithItsQuestionInOneStatement() {
+		assertStatementsAtMost(meterRegistry, "GET", "/api/answer/{answerId}", 1, () -> {
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/answer/5", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		});
+	}
+
+	@Test
+	void shouldPublishTheStatementsOfEachEndpoint() {
+		restTemplate.getForEntity("/api/surveys/1/results/full", String.class);
+
+		ResponseEntity<String> response = restTemplate.getForEntity(
+				"/actuator/metrics/" + StatementCounter.STATEMENTS_METRIC + "?tag=uri:{uri}", String.class,
+				"/api/surveys/{surveyId}/results/full");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray counts = documentContext.read("$.measurements[?(@.statistic == 'COUNT')].value");
+		assertThat(((Number) counts.get(0)).doubleValue()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void shouldFlagTheRequestsExceedingTheThreshold() {
+		String uri = "/test/statements/exceeded";
+		statementCounter.record("GET", uri, statementCounter.getThreshold());
+		statementCounter.record("GET", uri, statementCounter.getThreshold() + 1);
+
+		ResponseEntity<String> response = restTemplate.getForEntity(
+				"/actuator/metrics/" + StatementCounter.EXCEEDED_METRIC + "?tag=uri:" + uri, String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray counts = documentContext.read("$.measurements[?(@.statistic == 'COUNT')].value");
+		assertThat(((Number) counts.get(0)).doubleValue()).isEqualTo(1);
+	}
+
+}
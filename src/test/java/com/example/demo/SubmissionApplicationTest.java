@@ -1,26 +1,39 @@
 package com.example.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.exception.SurveyClosedException;
+import com.example.demo.model.PendingSubmission;
 import com.example.demo.model.Question;
 import com.example.demo.model.Submission;
 import com.example.demo.model.Survey;
 import com.example.demo.model.UserSubmission;
+import com.example.demo.service.ResponseService;
+import com.example.demo.service.SubmissionQueue;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.DocumentContext;
@@ -35,6 +48,15 @@ public class SubmissionApplicationTest {
 	@Autowired
 	TestRestTemplate restTemplate;
 
+	@Autowired
+	ResponseService responseService;
+
+	@Autowired
+	SubmissionQueue submissionQueue;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
 	final String uuidUser1 = "00000000-0000-0000-0000-000000000001";
 	final String uuidUser2 = "00000000-0000-0000-0000-000000000002";
 	final String uuidUser3 = "00000000-0000-0000-0000-000000000003";
@@ -98,6 +120,69 @@ public class SubmissionApplicationTest {
 		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
 	}
 
+	@Test
+	@DirtiesContext
+	void shouldLetAUserAnswerASurveyAgainOnceAllTheirAnswersToItAreDeleted() {
+		UUID userUuid1 = UUID.fromString(uuidUser1);
+		UUID userUuid3 = UUID.fromString(uuidUser3);
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(userUuid1, 1L)).isTrue();
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(userUuid3, 1L)).isTrue();
+
+		// Answer 1 is one of the two answers of the first user to survey 1
+		restTemplate.delete("/api/answer/1");
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(userUuid1, 1L)).isTrue();
+
+		// Answer 16 is the only answer of the third user to survey 1
+		restTemplate.delete("/api/answer/16");
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(userUuid3, 1L)).isFalse();
+
+		ArrayList<Submission> newSubmission = new ArrayList<Submission>();
+		newSubmission.addAll(Arrays.asList(new Submission(1L, 5), new Submission(3L, 4)));
+		ResponseEntity<Void> createResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit", new UserSubmission(userUuid3, newSubmission), Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(userUuid3, 1L)).isTrue();
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldReleaseTheSurveysOfTheUsersLeftWithoutAnswersWhenTheAnswersOfAQuestionAreDeleted() {
+		// The third user only answered question 3 of survey 1, the others answered
+		// questions 1 and 3
+		restTemplate.delete("/api/question/3/answer");
+
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(UUID.fromString(uuidUser1), 1L)).isTrue();
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(UUID.fromString(uuidUser2), 1L)).isTrue();
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(UUID.fromString(uuidUser3), 1L)).isFalse();
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotWriteAnythingIfOneOfTheQuestionsOfANewUserDoNotBelongToTheSurvey() {
+		ArrayList<Submission> newSubmission = new ArrayList<Submission>();
+		Submission newSubmission1 = new Submission(1L, 1);
+		Submission newSubmission2 = new Submission(2L, 2);
+		Submission newSubmission3 = new Submission(10L, 3); // The question with ID 10 is not in survey 1
+		newSubmission.addAll(Arrays.asList(newSubmission1, newSubmission2, newSubmission3));
+
+		UUID uuidUser4 = UUID.fromString("00000000-0000-0000-0000-000000000004");
+
+		ResponseEntity<Void> createResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit", new UserSubmission(uuidUser4, newSubmission), Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+		// None of the answers of the rejected submission were written
+		ResponseEntity<String> getResponse = restTemplate.getForEntity("/api/surveys/1/results", String.class);
+		DocumentContext documentContext = JsonPath.parse(getResponse.getBody());
+		JSONArray userUuids = documentContext.read("$[*].userUuid");
+		assertThat(userUuids).doesNotContain(uuidUser4.toString());
+
+		// And the user can still answer the survey
+		ResponseEntity<Object> getSurveyResponse = restTemplate
+				.getForEntity("/api/surveys/1/user/" + uuidUser4.toString(), Object.class);
+		assertThat(getSurveyResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
 	@Test
 	@DirtiesContext
 	void shouldProcessANewUserSubmissionEvenIfAllQuestionsAreNotAnswered() {
@@ -186,6 +271,80 @@ public class SubmissionApplicationTest {
 		assertThat(notAnswered.get(1).getId()).isEqualTo(3);
 	}
 
+	@Test
+	@DirtiesContext
+	void shouldNotReturnASurveyToAUserWhoJustSubmittedIt() {
+		ArrayList<Submission> newSubmission = new ArrayList<Submission>();
+		newSubmission.addAll(Arrays.asList(new Submission(4L, 1), new Submission(5L, 2)));
+
+		UUID uuidUser4 = UUID.fromString("00000000-0000-0000-0000-000000000004");
+
+		ResponseEntity<Object> getResponseBefore = restTemplate
+				.getForEntity("/api/surveys/2/user/" + uuidUser4.toString(), Object.class);
+		assertThat(getResponseBefore.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		ResponseEntity<Void> createResponse = restTemplate
+				.postForEntity("/api/surveys/2/submit", new UserSubmission(uuidUser4, newSubmission), Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		// The survey is now in the completion index of the user
+		ResponseEntity<String> getResponseAfter = restTemplate
+				.getForEntity("/api/surveys/2/user/" + uuidUser4.toString(), String.class);
+		assertThat(getResponseAfter.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+		// And a second submission is rejected
+		ResponseEntity<Void> secondCreateResponse = restTemplate
+				.postForEntity("/api/surveys/2/submit", new UserSubmission(uuidUser4, newSubmission), Void.class);
+		assertThat(secondCreateResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldAcceptOnlyOneOfManyConcurrentIdenticalSubmissions() throws Exception {
+		UUID uuidUser4 = UUID.fromString("00000000-0000-0000-0000-000000000004");
+		UserSubmission newUserSubmission = new UserSubmission(uuidUser4, new ArrayList<Submission>(
+				Arrays.asList(new Submission(1L, 1), new Submission(2L, 2), new Submission(3L, 3))));
+
+		int numberOfSubmits = 300;
+		ExecutorService executor = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<HttpStatusCode>> statusCodes = new ArrayList<Future<HttpStatusCode>>();
+		try {
+			for (int i = 0; i < numberOfSubmits; i++) {
+				statusCodes.add(executor.submit(() -> {
+					// All the requests are sent at the same time
+					start.await();
+					return restTemplate.postForEntity("/api/surveys/1/submit", newUserSubmission, String.class)
+							.getStatusCode();
+				}));
+			}
+			start.countDown();
+
+			int accepted = 0;
+			int rejected = 0;
+			for (Future<HttpStatusCode> statusCode : statusCodes) {
+				int value = statusCode.get(60, TimeUnit.SECONDS).value();
+				if (value == HttpStatus.OK.value()) {
+					accepted++;
+				} else if (value == HttpStatus.BAD_REQUEST.value()) {
+					rejected++;
+				}
+			}
+			// The others are rejected as duplicates, none fails with another error
+			assertThat(accepted).isEqualTo(1);
+			assertThat(rejected).isEqualTo(numberOfSubmits - 1);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// The answers of the user were written once
+		ResponseEntity<String> getResponse = restTemplate.getForEntity("/api/surveys/1/results", String.class);
+		DocumentContext documentContext = JsonPath.parse(getResponse.getBody());
+		JSONArray ratings = documentContext
+				.read("$[?(@.userUuid == '" + uuidUser4 + "')].userAnswers[*].answerRating");
+		assertThat(ratings).containsExactly(1, 2, 3);
+	}
+
 	@Test
 	void shouldReturnTheSurveysNotAnsweredByUserUuid() {
 		String uuidUser4 = "00000000-0000-0000-0000-000000000004";
@@ -219,4 +378,182 @@ public class SubmissionApplicationTest {
 		assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 	}
 
+	@Test
+	@DirtiesContext
+	void shouldQueueAnAsyncSubmissionAndReportWhenItIsWritten() throws InterruptedException {
+		UUID uuidUser4 = UUID.fromString("00000000-0000-0000-0000-000000000004");
+		UserSubmission newUserSubmission = new UserSubmission(uuidUser4,
+				new ArrayList<Submission>(Arrays.asList(new Submission(1L, 5), new Submission(3L, 2))));
+
+		ResponseEntity<String> createResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit?async=true", newUserSubmission, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		URI locationOfStatus = createResponse.getHeaders().getLocation();
+		assertThat(locationOfStatus).isNotNull();
+
+		String submissionId = JsonPath.parse(createResponse.getBody()).read("$.id");
+		assertThat(locationOfStatus.getPath()).isEqualTo("/api/surveys/1/submissions/" + submissionId);
+
+		// The submission is written by another thread, we wait for it
+		String status = null;
+		for (int attempt = 0; attempt < 50 && !"DURABLE".equals(status); attempt++) {
+			Thread.sleep(100);
+			ResponseEntity<String> statusResponse = restTemplate.getForEntity(locationOfStatus, String.class);
+			assertThat(statusResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+			status = JsonPath.parse(statusResponse.getBody()).read("$.status");
+		}
+		assertThat(status).isEqualTo("DURABLE");
+
+		ResponseEntity<String> resultsResponse = restTemplate.getForEntity("/api/surveys/1/results", String.class);
+		JSONArray userUuids = JsonPath.parse(resultsResponse.getBody()).read("$[*].userUuid");
+		assertThat(userUuids).contains(uuidUser4.toString());
+
+		// The user answered the survey, a second submission is rejected
+		ResponseEntity<String> secondResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit?async=true", newUserSubmission, String.class);
+		assertThat(secondResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void shouldNotQueueASubmissionOfAUserWhoAlreadyAnsweredTheSurvey() throws Exception {
+		// Validated as if the checks of the controller were passed before the user
+		// answered
+		PendingSubmission pendingSubmission = responseService.validateSubmission(1L, UUID.fromString(uuidUser1),
+				List.of(new Submission(1L, 4)));
+
+		assertThatThrownBy(() -> submissionQueue.enqueue(pendingSubmission))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(submissionQueue.isQueued(1L, UUID.fromString(uuidUser1))).isFalse();
+	}
+
+	@Test
+	void shouldValidateAnAsyncSubmissionBeforeQueuingIt() {
+		UserSubmission newUserSubmission = new UserSubmission(
+				UUID.fromString("00000000-0000-0000-0000-000000000005"),
+				new ArrayList<Submission>(Arrays.asList(new Submission(10L, 1), new Submission(2L, 2))));
+
+		ResponseEntity<String> createResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit?async=true", newUserSubmission, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotProcessASubmissionToAClosedSurveyUntilItIsReopened() {
+		ArrayList<Submission> newSubmission = new ArrayList<Submission>();
+		newSubmission.addAll(Arrays.asList(new Submission(1L, 1), new Submission(3L, 3)));
+		UserSubmission newUserSubmission = new UserSubmission(
+				UUID.fromString("00000000-0000-0000-0000-000000000004"), newSubmission);
+
+		// The closed flag is read-only, it is not read back into a Survey
+		ResponseEntity<String> closeResponse = restTemplate.postForEntity("/api/surveys/1/close", null, String.class);
+		assertThat(closeResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		boolean closed = JsonPath.parse(closeResponse.getBody()).read("$.closed");
+		assertThat(closed).isTrue();
+
+		ResponseEntity<String> createResponse = restTemplate
+				.postForEntity("/api/surveys/1/submit", newUserSubmission, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(createResponse.getBody()).isEqualTo("Invalid request: survey closed");
+
+		ResponseEntity<String> reopenResponse = restTemplate.postForEntity("/api/surveys/1/reopen", null,
+				String.class);
+		assertThat(reopenResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		closed = JsonPath.parse(reopenResponse.getBody()).read("$.closed");
+		assertThat(closed).isFalse();
+
+		createResponse = restTemplate.postForEntity("/api/surveys/1/submit", newUserSubmission, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotWriteASubmissionValidatedBeforeItsSurveyWasClosed() throws Exception {
+		PendingSubmission pendingSubmission = responseService.validateSubmission(1L,
+				UUID.fromString("00000000-0000-0000-0000-000000000004"),
+				List.of(new Submission(1L, 1), new Submission(3L, 3)));
+
+		ResponseEntity<String> closeResponse = restTemplate.postForEntity("/api/surveys/1/close", null, String.class);
+		assertThat(closeResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		assertThatThrownBy(() -> responseService.savePendingSubmissions(List.of(pendingSubmission)))
+				.isInstanceOf(SurveyClosedException.class);
+		assertThat(responseService.hasAnswersFromUserUuidToSurvey(pendingSubmission.userUuid(), 1L)).isFalse();
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldWriteConcurrentSubmissionsToTheSameSurveyAndCloseItOnceTheyAreWritten() throws Exception {
+		PendingSubmission openSubmission = responseService.validateSubmission(1L,
+				UUID.fromString("00000000-0000-0000-0000-000000000004"), List.of(new Submission(1L, 1)));
+
+		int numberOfSubmits = 20;
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfSubmits + 1);
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		try {
+			// A submission to survey 1 is written but not committed, it keeps the
+			// survey locked
+			Future<?> openTransaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				responseService.savePendingSubmissions(List.of(openSubmission));
+				written.countDown();
+				try {
+					commit.await(60, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			assertThat(written.await(60, TimeUnit.SECONDS)).isTrue();
+
+			// The submissions of other users to the same survey do not wait for it
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<HttpStatusCode>> statusCodes = new ArrayList<Future<HttpStatusCode>>();
+			for (int i = 0; i < numberOfSubmits; i++) {
+				UserSubmission userSubmission = new UserSubmission(
+						UUID.fromString(String.format("00000000-0000-0000-0000-%012d", 100 + i)),
+						new ArrayList<Submission>(Arrays.asList(new Submission(1L, 1), new Submission(2L, 2))));
+				statusCodes.add(executor.submit(() -> {
+					start.await();
+					return restTemplate.postForEntity("/api/surveys/1/submit", userSubmission, String.class)
+							.getStatusCode();
+				}));
+			}
+			start.countDown();
+			for (Future<HttpStatusCode> statusCode : statusCodes) {
+				assertThat(statusCode.get(60, TimeUnit.SECONDS)).isEqualTo(HttpStatus.OK);
+			}
+
+			// The close waits for the submission that is not committed
+			Future<ResponseEntity<String>> closeResponse = executor
+					.submit(() -> restTemplate.postForEntity("/api/surveys/1/close", null, String.class));
+			Thread.sleep(500);
+			assertThat(closeResponse.isDone()).isFalse();
+
+			commit.countDown();
+			openTransaction.get(60, TimeUnit.SECONDS);
+			assertThat(closeResponse.get(60, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+		} finally {
+			commit.countDown();
+			executor.shutdownNow();
+		}
+
+		// The results of the closed survey have every submission
+		ResponseEntity<String> getResponse = restTemplate.getForEntity("/api/surveys/1/results", String.class);
+		JSONArray userUuids = JsonPath.parse(getResponse.getBody()).read("$[*].userUuid");
+		assertThat(userUuids).contains(openSubmission.userUuid().toString()).hasSize(3 + 1 + numberOfSubmits);
+	}
+
+	@Test
+	void shouldNotCloseASurveyThatDoesNotExist() {
+		ResponseEntity<Survey> response = restTemplate.postForEntity("/api/surveys/99999/close", null, Survey.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
+	@Test
+	void shouldNotReturnTheStatusOfAnUnknownSubmission() {
+		ResponseEntity<String> statusResponse = restTemplate
+				.getForEntity("/api/surveys/1/submissions/" + UUID.randomUUID(), String.class);
+		assertThat(statusResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
 }
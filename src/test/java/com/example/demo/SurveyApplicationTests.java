@@ -3,11 +3,15 @@ package com.example.demo;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,11 +21,13 @@ import org.springframework.test.context.TestPropertySource;
 import com.example.demo.model.Answer;
 import com.example.demo.model.Question;
 import com.example.demo.model.Survey;
+import com.example.demo.model.SurveyWithQuestionsDTO;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import net.minidev.json.JSONArray;
 
 @TestPropertySource(locations = "classpath:application-test.properties")
@@ -30,6 +36,9 @@ public class SurveyApplicationTests {
 	@Autowired
 	TestRestTemplate restTemplate;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	final String surveyBaseUri = "/api/surveys";
 
 	final String emptyIdSurveyUri = surveyBaseUri + "/";
@@ -66,6 +75,48 @@ public class SurveyApplicationTests {
 
 	}
 
+	@Test
+	void shouldNotSendAnUnchangedSurveyAgain() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "/1", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		String eTag = response.getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+
+		// The ETag is checked without reading the survey
+		StatementCountAssertions.assertStatementsAtMost(meterRegistry, "GET", "/api/surveys/{surveyId}", 0, () -> {
+			ResponseEntity<String> conditionalResponse = restTemplate.exchange(surveyBaseUri + "/1", HttpMethod.GET,
+					new HttpEntity<Void>(headers), String.class);
+			assertThat(conditionalResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+			assertThat(conditionalResponse.getHeaders().getETag()).isEqualTo(eTag);
+			assertThat(conditionalResponse.getBody()).isNull();
+		});
+
+		// The ETag of another survey does not match
+		ResponseEntity<String> otherResponse = restTemplate.exchange(surveyBaseUri + "/2", HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+		assertThat(otherResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(otherResponse.getHeaders().getETag()).isNotEqualTo(eTag);
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldNotConsiderADeletedSurveyAsUnchanged() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "/3", String.class);
+		String eTag = response.getHeaders().getETag();
+
+		restTemplate.delete(surveyBaseUri + "/3");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<String> conditionalResponse = restTemplate.exchange(surveyBaseUri + "/3", HttpMethod.GET,
+				new HttpEntity<Void>(headers), String.class);
+
+		assertThat(conditionalResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+	}
+
 	@Test
 	void shouldNotReturnPrivateIdOfAnExistingSurvey() {
 		ResponseEntity<String> response = restTemplate
@@ -151,6 +202,79 @@ public class SurveyApplicationTests {
 				"Description of Example Survey 3");
 	}
 
+	@Test
+	void shouldReturnAPageOfSurveysWithALinkToTheNextPage() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "?limit=2", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		JSONArray ids = JsonPath.parse(response.getBody()).read("$[*].id");
+		assertThat(ids).containsExactly(1, 2);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).contains("after=2");
+
+		ResponseEntity<String> nextPage = restTemplate.getForEntity(surveyBaseUri + "?after=2&limit=2", String.class);
+		JSONArray nextIds = JsonPath.parse(nextPage.getBody()).read("$[*].id");
+		assertThat(nextIds).containsExactly(3);
+		assertThat(nextPage.getHeaders().getFirst(HttpHeaders.LINK)).isNull();
+	}
+
+	@Test
+	void shouldReturnTheSurveysWhoseTitleStartsWithAPrefix() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "?title={title}", String.class,
+				"Example Survey 2");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		JSONArray titles = JsonPath.parse(response.getBody()).read("$[*].title");
+		assertThat(titles).containsExactly("Example Survey 2");
+
+		// The wildcards of the prefix are not wildcards
+		ResponseEntity<String> wildcardResponse = restTemplate.getForEntity(surveyBaseUri + "?title={title}", String.class,
+				"Example_%");
+		JSONArray wildcardTitles = JsonPath.parse(wildcardResponse.getBody()).read("$[*].title");
+		assertThat(wildcardTitles).isEmpty();
+	}
+
+	@Test
+	void shouldReturnOnlyTheRequestedFieldsOfTheSurveys() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "?fields=id,title",
+				String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(response.getBody());
+		JSONArray titles = documentContext.read("$[*].title");
+		assertThat(titles).containsExactly("Example Survey 1", "Example Survey 2", "Example Survey 3");
+		JSONArray descs = documentContext.read("$..desc");
+		assertThat(descs).isEmpty();
+
+		ResponseEntity<String> titlesResponse = restTemplate.getForEntity(surveyBaseUri + "?fields=title",
+				String.class);
+		JSONArray ids = JsonPath.parse(titlesResponse.getBody()).read("$..id");
+		assertThat(ids).isEmpty();
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldReturnTheNullFieldsOfTheSurveysWhenAllTheFieldsAreRequested() {
+		ResponseEntity<Void> createResponse = restTemplate.postForEntity(surveyBaseUri,
+				new Survey("Survey without description", null), Void.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "?title={title}",
+				String.class, "Survey without description");
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).contains("\"desc\":null");
+
+		ResponseEntity<String> projectedResponse = restTemplate.getForEntity(
+				surveyBaseUri + "?title={title}&fields=id,desc", String.class, "Survey without description");
+		assertThat(projectedResponse.getBody()).contains("\"desc\":null").doesNotContain("\"title\"");
+	}
+
+	@Test
+	void shouldNotReturnAnUnknownFieldOfTheSurveys() {
+		ResponseEntity<String> response = restTemplate.getForEntity(surveyBaseUri + "?fields=id,uuid",
+				String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
 	@Test
 	@DirtiesContext
 	void shouldDeleteAnExistingSurvey() {
@@ -214,4 +338,67 @@ public class SurveyApplicationTests {
 		assertThat(getResponseToFetchAnswer.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 	}
 
+	@Test
+	@DirtiesContext
+	void shouldCreateASurveyWithAllItsQuestions() {
+		SurveyWithQuestionsDTO newSurvey = new SurveyWithQuestionsDTO("Bulk survey", "Created at once",
+				List.of(new Question("Bulk question 1"), new Question("Bulk question 2"),
+						new Question("Bulk question 3")));
+
+		ResponseEntity<String> createResponse = restTemplate
+				.postForEntity(surveyBaseUri + "/bulk", newSurvey, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		DocumentContext createdSurvey = JsonPath.parse(createResponse.getBody());
+		Number id = createdSurvey.read("$.id");
+		JSONArray questionIds = createdSurvey.read("$.questionIds");
+		assertThat(questionIds).hasSize(3);
+
+		URI locationOfNewSurvey = createResponse.getHeaders().getLocation();
+		assertThat(locationOfNewSurvey.getPath()).isEqualTo(surveyBaseUri + "/" + id);
+
+		ResponseEntity<String> getResponse = restTemplate
+				.getForEntity(surveyBaseUri + "/" + id + "/question", String.class);
+		assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		DocumentContext documentContext = JsonPath.parse(getResponse.getBody());
+		JSONArray ids = documentContext.read("$[*].id");
+		assertThat(ids).containsExactlyElementsOf(questionIds);
+		JSONArray texts = documentContext.read("$[*].text");
+		assertThat(texts).containsExactly("Bulk question 1", "Bulk question 2", "Bulk question 3");
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldInsertTheQuestionsOfANewSurveyInBatches() {
+		List<Question> newQuestions = new ArrayList<Question>();
+		for (int i = 1; i <= 60; i++) {
+			newQuestions.add(new Question("Bulk question " + i));
+		}
+		SurveyWithQuestionsDTO newSurvey = new SurveyWithQuestionsDTO("Bulk survey", "Created at once",
+				newQuestions);
+
+		// The survey, two blocks of 50 question IDs and two batches of inserts
+		StatementCountAssertions.assertStatementsAtMost(meterRegistry, "POST", "/api/surveys/bulk", 5, () -> {
+			ResponseEntity<String> createResponse = restTemplate
+					.postForEntity(surveyBaseUri + "/bulk", newSurvey, String.class);
+			assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		});
+	}
+
+	@Test
+	void shouldNotCreateASurveyWithAQuestionWithoutText() {
+		SurveyWithQuestionsDTO newSurvey = new SurveyWithQuestionsDTO("Bulk survey", "Created at once",
+				List.of(new Question("Bulk question 1"), new Question((String) null)));
+
+		ResponseEntity<String> createResponse = restTemplate
+				.postForEntity(surveyBaseUri + "/bulk", newSurvey, String.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+		// Nothing was written
+		ResponseEntity<String> getResponse = restTemplate.getForEntity(surveyBaseUri, String.class);
+		JSONArray titles = JsonPath.parse(getResponse.getBody()).read("$[*].title");
+		assertThat(titles).doesNotContain("Bulk survey");
+	}
+
 }
@@ -1,9 +1,9 @@
+DELETE FROM SURVEY_RESULTS_SNAPSHOT;
+DELETE FROM SURVEY_COMPLETION;
 DELETE FROM ANSWER;
 DELETE FROM QUESTION;
 DELETE FROM SURVEY;
 
-ALTER TABLE ANSWER ALTER COLUMN answer_id RESTART WITH 1;
-ALTER TABLE QUESTION ALTER COLUMN question_id RESTART WITH 1;
 ALTER TABLE SURVEY ALTER COLUMN survey_id RESTART WITH 1;
 
 
@@ -16,21 +16,24 @@ VALUES
 
 
 -- QUESTIONS --------------------------------
-INSERT INTO QUESTION(QUESTION_TEXT, SURVEY_ID) 
+INSERT INTO QUESTION(QUESTION_ID, QUESTION_TEXT, SURVEY_ID) 
 VALUES 
 -- Survey 1
-    ('Question 1.1', 1), -- ID 1
-    ('Question 1.2', 1),
-    ('Question 1.3', 1),
+    (1, 'Question 1.1', 1), -- ID 1
+    (2, 'Question 1.2', 1),
+    (3, 'Question 1.3', 1),
 -- Survey 2
-    ('Question 2.1', 2),
-    ('Question 2.2', 2), -- ID 5
-    ('Question 2.3', 2),
-    ('Question 2.4', 2),
-    ('Question 2.5', 2),
+    (4, 'Question 2.1', 2),
+    (5, 'Question 2.2', 2), -- ID 5
+    (6, 'Question 2.3', 2),
+    (7, 'Question 2.4', 2),
+    (8, 'Question 2.5', 2),
 -- Survey 3
-    ('Question 3.1', 3),
-    ('Question 3.2', 3); -- ID 10
+    (9, 'Question 3.1', 3),
+    (10, 'Question 3.2', 3); -- ID 10
+
+-- Question ids come from a pooled sequence, we move it after the seeded questions.
+ALTER SEQUENCE QUESTION_SEQ RESTART WITH 11;
 
 
 -- ANSWERS --------------------------------
@@ -38,40 +41,49 @@ SET @User1UUID = '00000000-0000-0000-0000-000000000001';
 SET @User2UUID = '00000000-0000-0000-0000-000000000002';
 SET @User3UUID = '00000000-0000-0000-0000-000000000003';
 
-INSERT INTO ANSWER(ANSWER_RATING, QUESTION_ID, USER_UUID) 
+INSERT INTO ANSWER(ANSWER_ID, ANSWER_RATING, QUESTION_ID, USER_UUID) 
     VALUES  
     -- User1
         -- Survey 1
-        (4, 1, @User1UUID), -- ID 1
-        (4, 3, @User1UUID),
+        (1, 4, 1, @User1UUID), -- ID 1
+        (2, 4, 3, @User1UUID),
         -- Survey 2
-        (2, 4, @User1UUID),
-        (5, 5, @User1UUID),
-        (4, 6, @User1UUID), -- ID 5
-        (5, 8, @User1UUID),
+        (3, 2, 4, @User1UUID),
+        (4, 5, 5, @User1UUID),
+        (5, 4, 6, @User1UUID), -- ID 5
+        (6, 5, 8, @User1UUID),
         -- Survey 3
-        (1, 9, @User1UUID),
-        (4, 10, @User1UUID),
+        (7, 1, 9, @User1UUID),
+        (8, 4, 10, @User1UUID),
     -- User2
         -- Survey 1
-        (4, 1, @User2UUID),
-        (1, 3, @User2UUID), -- ID 10
+        (9, 4, 1, @User2UUID),
+        (10, 1, 3, @User2UUID), -- ID 10
         -- Survey 1
-        (4, 4, @User2UUID),
-        (3, 5, @User2UUID),
-        (2, 6, @User2UUID),
-        (5, 7, @User2UUID),
-        (4, 8, @User2UUID), -- ID 15
+        (11, 4, 4, @User2UUID),
+        (12, 3, 5, @User2UUID),
+        (13, 2, 6, @User2UUID),
+        (14, 5, 7, @User2UUID),
+        (15, 4, 8, @User2UUID), -- ID 15
         -- Survey 3
     --User3
         -- Survey 1
-        (3, 3, @User3UUID),
+        (16, 3, 3, @User3UUID),
         -- Survey 2
-        (5, 4, @User3UUID),
-        (1, 5, @User3UUID),
-        (4, 6, @User3UUID),
-        (2, 7, @User3UUID), -- ID 20
-        (3, 8, @User3UUID),
+        (17, 5, 4, @User3UUID),
+        (18, 1, 5, @User3UUID),
+        (19, 4, 6, @User3UUID),
+        (20, 2, 7, @User3UUID), -- ID 20
+        (21, 3, 8, @User3UUID),
         -- Survey 3
-        (5, 9, @User3UUID),
-        (5, 10, @User3UUID);
+        (22, 5, 9, @User3UUID),
+        (23, 5, 10, @User3UUID);
+
+-- Answer ids come from a pooled sequence, we move it after the seeded answers.
+ALTER SEQUENCE ANSWER_SEQ RESTART WITH 24;
+
+
+-- SURVEY COMPLETIONS --------------------------------
+INSERT INTO SURVEY_COMPLETION(SURVEY_ID, USER_UUID)
+    SELECT DISTINCT q.SURVEY_ID, a.USER_UUID
+    FROM ANSWER a JOIN QUESTION q ON q.QUESTION_ID = a.QUESTION_ID;